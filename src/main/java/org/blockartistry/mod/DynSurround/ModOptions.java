@@ -138,8 +138,9 @@ public final class ModOptions {
 	public static final String CONFIG_MIN_RAIN_STRENGTH = "Default Minimum Rain Strength";
 	public static final String CONFIG_MAX_RAIN_STRENGTH = "Default Maximum Rain Strength";
 	public static final String CONFIG_FX_RANGE = "Special Effect Range";
+	public static final String CONFIG_FX_SCAN_PATTERN = "Special Effect Scan Pattern";
 	private static final List<String> generalSort = ImmutableList.<String>builder()
-			.add(CONFIG_FX_RANGE, CONFIG_MIN_RAIN_STRENGTH, CONFIG_MAX_RAIN_STRENGTH).build();
+			.add(CONFIG_FX_RANGE, CONFIG_FX_SCAN_PATTERN, CONFIG_MIN_RAIN_STRENGTH, CONFIG_MAX_RAIN_STRENGTH).build();
 
 	@Parameter(category = CATEGORY_GENERAL, property = CONFIG_MIN_RAIN_STRENGTH, defaultValue = "0.0")
 	@MinMaxFloat(min = 0.0F, max = 1.0F)
@@ -153,6 +154,9 @@ public final class ModOptions {
 	@MinMaxInt(min = 16, max = 32)
 	@Comment("Block radius/range around player for special effect application")
 	public static int specialEffectRange = 16;
+	@Parameter(category = CATEGORY_GENERAL, property = CONFIG_FX_SCAN_PATTERN, defaultValue = "sequence")
+	@Comment("Order blocks around the player are checked for special effects: sequence, shell, or random")
+	public static String specialEffectScanPattern = "sequence";
 
 	public static final String CATEGORY_AURORA = "aurora";
 	public static final String CONFIG_AURORA_ENABLED = "Enabled";
@@ -189,7 +193,9 @@ public final class ModOptions {
 	public static final String CATEGORY_BIOMES = "biomes";
 	public static final String CONFIG_BIOME_CONFIG_FILES = "Config Files";
 	public static final String CONFIG_BIOME_ALIASES = "Biome Alias";
-	private static final List<String> biomesSort = Arrays.asList(CONFIG_BIOME_CONFIG_FILES, CONFIG_BIOME_ALIASES);
+	public static final String CONFIG_BIOME_SURVEY_RANGE = "Survey Range";
+	private static final List<String> biomesSort = Arrays.asList(CONFIG_BIOME_CONFIG_FILES, CONFIG_BIOME_ALIASES,
+			CONFIG_BIOME_SURVEY_RANGE);
 
 	@Parameter(category = CATEGORY_BIOMES, property = CONFIG_BIOME_CONFIG_FILES, defaultValue = "")
 	@Comment("Configuration files for configuring Biome Registry")
@@ -199,6 +205,10 @@ public final class ModOptions {
 	@Comment("Biome alias list")
 	@RestartRequired
 	public static String[] biomeAliases = {};
+	@Parameter(category = CATEGORY_BIOMES, property = CONFIG_BIOME_SURVEY_RANGE, defaultValue = "6")
+	@MinMaxInt(min = 1, max = 32)
+	@Comment("Block radius around the player to survey when blending biome sounds")
+	public static int biomeSurveyRange = 6;
 
 	public static final String CATEGORY_DIMENSIONS = "dimensions";
 	public static final String CONFIG_DIMENSION_CONFIG_FILES = "Config Files";
@@ -222,6 +232,7 @@ public final class ModOptions {
 	public static final String CONFIG_AUTO_CONFIG_CHANNELS = "Autoconfigure Channels";
 	public static final String CONFIG_NORMAL_CHANNEL_COUNT = "Number Normal Channels";
 	public static final String CONFIG_STREAMING_CHANNEL_COUNT = "Number Streaming Channels";
+	public static final String CONFIG_LEARNED_STREAMING_CHANNELS = "Learned Streaming Channels";
 	public static final String CONFIG_ENABLE_JUMP_SOUND = "Jump Sound";
 	public static final String CONFIG_ENABLE_SWING_SOUND = "Swing Sound";
 	public static final String CONFIG_ENABLE_CRAFTING_SOUND = "Crafting Sound";
@@ -229,14 +240,20 @@ public final class ModOptions {
 	public static final String CONFIG_ENABLE_FOOTSTEPS_SOUND = "Footsteps";
 	public static final String CONFIG_FOOTSTEPS_SOUND_FACTOR = "Footsteps Sound Factor";
 	public static final String CONFIG_SOUND_CULL_THRESHOLD = "Sound Culling Threshold";
+	public static final String CONFIG_SOUND_TICK_BUDGET = "Sound Tick Budget";
 	public static final String CONFIG_CULLED_SOUNDS = "Culled Sounds";
 	public static final String CONFIG_BLOCKED_SOUNDS = "Blocked Sounds";
 	public static final String CONFIG_SOUND_VOLUMES = "Sound Volume";
+	public static final String CONFIG_SOUND_CACHE_SIZE = "Sound Cache Size";
+	public static final String CONFIG_SOUND_PCM_CACHE_SIZE = "Decoded Sound Cache Size";
+	public static final String CONFIG_SOUND_SOURCE_POOL_SIZE = "Sound Source Pool Size";
 	private static final List<String> soundsSort = Arrays.asList(CONFIG_ENABLE_BIOME_SOUNDS, CONFIG_MASTER_SOUND_FACTOR,
 			CONFIG_ENABLE_FOOTSTEPS_SOUND, CONFIG_FOOTSTEPS_SOUND_FACTOR, CONFIG_ENABLE_JUMP_SOUND,
 			CONFIG_ENABLE_SWING_SOUND, CONFIG_ENABLE_CRAFTING_SOUND, CONFIG_ENABLE_BOW_PULL_SOUND,
 			CONFIG_AUTO_CONFIG_CHANNELS, CONFIG_NORMAL_CHANNEL_COUNT, CONFIG_STREAMING_CHANNEL_COUNT,
-			CONFIG_BLOCKED_SOUNDS, CONFIG_SOUND_CULL_THRESHOLD, CONFIG_CULLED_SOUNDS, CONFIG_SOUND_VOLUMES);
+			CONFIG_LEARNED_STREAMING_CHANNELS, CONFIG_BLOCKED_SOUNDS, CONFIG_SOUND_CULL_THRESHOLD,
+			CONFIG_SOUND_TICK_BUDGET, CONFIG_CULLED_SOUNDS, CONFIG_SOUND_VOLUMES, CONFIG_SOUND_CACHE_SIZE,
+			CONFIG_SOUND_PCM_CACHE_SIZE, CONFIG_SOUND_SOURCE_POOL_SIZE);
 
 	@Parameter(category = CATEGORY_SOUND, property = CONFIG_ENABLE_BIOME_SOUNDS, defaultValue = "true")
 	@Comment("Enable biome background and spot sounds")
@@ -260,6 +277,11 @@ public final class ModOptions {
 	@Comment("Number of streaming sound channels to configure in the sound system (manual)")
 	@RestartRequired
 	public static int streamingSoundChannelCount = 4;
+	@Parameter(category = CATEGORY_SOUND, property = CONFIG_LEARNED_STREAMING_CHANNELS, defaultValue = "0")
+	@MinMaxInt(min = 0)
+	@Comment("Learned streaming channel count used by channel autoconfiguration (0 for default)")
+	@Hidden
+	public static int learnedStreamingChannels = 0;
 	@Parameter(category = CATEGORY_SOUND, property = CONFIG_ENABLE_JUMP_SOUND, defaultValue = "true")
 	@Comment("Enable sound effect when jumping")
 	@RestartRequired
@@ -286,8 +308,12 @@ public final class ModOptions {
 	public static float footstepsSoundFactor = 0.15F;
 	@Parameter(category = CATEGORY_SOUND, property = CONFIG_SOUND_CULL_THRESHOLD, defaultValue = "20")
 	@MinMaxInt(min = 0)
-	@Comment("Ticks between culled sound events (0 to disable culling)")
+	@Comment("Ticks between culled sound events in the same area (0 to disable culling)")
 	public static int soundCullingThreshold = 20;
+	@Parameter(category = CATEGORY_SOUND, property = CONFIG_SOUND_TICK_BUDGET, defaultValue = "16")
+	@MinMaxInt(min = 0)
+	@Comment("Maximum number of new positioned sounds started per tick (0 for no limit)")
+	public static int soundTickBudget = 16;
 	@Parameter(category = CATEGORY_SOUND, property = CONFIG_CULLED_SOUNDS, defaultValue = "^minecraft:liquid.*,minecraft:mob.sheep.say,minecraft:mob.chicken.say,minecraft:mob.cow.say,minecraft:mob.pig.say")
 	@Comment("Sounds to cull from frequent playing")
 	@RestartRequired
@@ -301,6 +327,18 @@ public final class ModOptions {
 	@Comment("Individual sound scaling factors")
 	@Hidden
 	public static String[] soundVolumes = {};
+	@Parameter(category = CATEGORY_SOUND, property = CONFIG_SOUND_CACHE_SIZE, defaultValue = "8192")
+	@MinMaxInt(min = 0, max = 262144)
+	@Comment("Kilobytes of short sounds to hold in memory; sounds beyond the budget are streamed")
+	public static int soundCacheSize = 8192;
+	@Parameter(category = CATEGORY_SOUND, property = CONFIG_SOUND_PCM_CACHE_SIZE, defaultValue = "0")
+	@MinMaxInt(min = 0, max = 262144)
+	@Comment("Kilobytes of decoded short sounds to have ready for the sound system ahead of play; 0 disables")
+	public static int soundPcmCacheSize = 0;
+	@Parameter(category = CATEGORY_SOUND, property = CONFIG_SOUND_SOURCE_POOL_SIZE, defaultValue = "32")
+	@MinMaxInt(min = 0, max = 256)
+	@Comment("Number of finished sound sources kept for reuse by short sounds; 0 disables")
+	public static int soundSourcePoolSize = 32;
 
 	public static final String CATEGORY_PLAYER = "player";
 	public static final String CONFIG_SUPPRESS_POTION_PARTICLES = "Suppress Potion Particles";
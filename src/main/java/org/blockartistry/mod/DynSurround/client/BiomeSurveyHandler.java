@@ -24,6 +24,9 @@
 
 package org.blockartistry.mod.DynSurround.client;
 
+import java.util.Arrays;
+
+import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
 import org.blockartistry.mod.DynSurround.data.FakeBiome;
 
@@ -36,19 +39,36 @@ import net.minecraft.world.World;
 import net.minecraft.world.biome.BiomeGenBase;
 
 @SideOnly(Side.CLIENT)
-public final class BiomeSurveyHandler implements IClientEffectHandler {
-
-	private static final int BIOME_SURVEY_RANGE = 6;
+public final class BiomeSurveyHandler implements IClientEffectHandler, IColumnListener {
 
 	private static int area;
+	private static int generation;
 	private static final TObjectIntHashMap<BiomeGenBase> weights = new TObjectIntHashMap<>();
 
+	// Biomes of the columns currently in the survey window. Columns are
+	// slotted by world coordinate modulo the window size so that when the
+	// window slides the leading column lands in the slot of the trailing
+	// column it replaces.
+	private static BiomeGenBase[] columns = new BiomeGenBase[0];
+	private static int range = -1;
+	private static int size;
+	private static boolean columnsValid;
+
+	// Slots whose column changed after it was read, such as when the
+	// chunk data arrives after the column entered the window.
+	private static boolean[] dirty = new boolean[0];
+	private static boolean hasDirty;
+
+	private static World lastWorld = null;
 	private static BiomeGenBase lastPlayerBiome = null;
 	private static int lastDimension = 0;
 	private static int lastPlayerX = 0;
-	private static int lastPlayerY = 0;
 	private static int lastPlayerZ = 0;
 
+	public BiomeSurveyHandler() {
+		ColumnCache.addListener(this);
+	}
+
 	public static int getArea() {
 		return area;
 	}
@@ -57,41 +77,143 @@ public final class BiomeSurveyHandler implements IClientEffectHandler {
 		return weights;
 	}
 
-	private static void doSurvey(final EntityPlayer player, final int range) {
+	/*
+	 * Bumped each time the survey changes so consumers can tell
+	 * whether the weights changed since they last looked.
+	 */
+	public static int getGeneration() {
+		return generation;
+	}
+
+	private static int slot(final int x, final int z) {
+		return Math.floorMod(x, size) * size + Math.floorMod(z, size);
+	}
+
+	private static void add(final int slot, final BiomeGenBase biome) {
+		columns[slot] = biome;
+		weights.adjustOrPutValue(biome, 1, 1);
+	}
+
+	private static void remove(final int slot) {
+		final BiomeGenBase biome = columns[slot];
+		if (weights.adjustOrPutValue(biome, -1, 0) <= 0)
+			weights.remove(biome);
+	}
+
+	private static void doSurvey(final World world, final int x, final int z) {
 		area = 0;
 		weights.clear();
+		generation++;
+		columnsValid = false;
+		hasDirty = false;
+		Arrays.fill(dirty, false);
 
 		if (EnvironState.getPlayerBiome() instanceof FakeBiome) {
 			area = 1;
 			weights.put(EnvironState.getPlayerBiome(), 1);
 		} else {
-			final int x = MathHelper.floor_double(player.posX);
-			final int z = MathHelper.floor_double(player.posZ);
-
 			for (int dX = -range; dX <= range; dX++)
 				for (int dZ = -range; dZ <= range; dZ++) {
 					area++;
-					final BiomeGenBase biome = player.worldObj.getBiomeGenForCoords(x + dX, z + dZ);
-					weights.adjustOrPutValue(biome, 1, 1);
+					add(slot(x + dX, z + dZ), ColumnCache.getBiome(world, x + dX, z + dZ));
 				}
+			columnsValid = true;
 		}
 	}
 
+	/*
+	 * Slides the window one column at a time.  Each step drops the
+	 * trailing row/column and fetches the leading one; everything else
+	 * is already known.
+	 */
+	private static void slideSurvey(final World world, final int x, final int z) {
+		int cX = lastPlayerX;
+		int cZ = lastPlayerZ;
+
+		while (cX != x) {
+			final int step = cX < x ? 1 : -1;
+			final int leading = cX + step + step * range;
+			for (int dZ = -range; dZ <= range; dZ++) {
+				final int slot = slot(leading, cZ + dZ);
+				remove(slot);
+				add(slot, ColumnCache.getBiome(world, leading, cZ + dZ));
+			}
+			cX += step;
+		}
+
+		while (cZ != z) {
+			final int step = cZ < z ? 1 : -1;
+			final int leading = cZ + step + step * range;
+			for (int dX = -range; dX <= range; dX++) {
+				final int slot = slot(cX + dX, leading);
+				remove(slot);
+				add(slot, ColumnCache.getBiome(world, cX + dX, leading));
+			}
+			cZ += step;
+		}
+
+		generation++;
+	}
+
+	/*
+	 * Reads the columns in the window that changed since they were
+	 * read.  Only a change of biome counts as a new survey.
+	 */
+	private static void refreshSurvey(final World world, final int x, final int z) {
+		hasDirty = false;
+		boolean changed = false;
+		for (int dX = -range; dX <= range; dX++)
+			for (int dZ = -range; dZ <= range; dZ++) {
+				final int slot = slot(x + dX, z + dZ);
+				if (!dirty[slot])
+					continue;
+				dirty[slot] = false;
+				final BiomeGenBase biome = ColumnCache.getBiome(world, x + dX, z + dZ);
+				if (biome != columns[slot]) {
+					remove(slot);
+					add(slot, biome);
+					changed = true;
+				}
+			}
+		if (changed)
+			generation++;
+	}
+
 	@Override
 	public void process(World world, EntityPlayer player) {
 		final int playerX = MathHelper.floor_double(player.posX);
-		final int playerY = MathHelper.floor_double(player.posY);
 		final int playerZ = MathHelper.floor_double(player.posZ);
 
-		if (lastDimension != EnvironState.getDimensionId() || playerX != lastPlayerX || playerY != lastPlayerY
-				|| playerZ != lastPlayerZ || lastPlayerBiome != EnvironState.getPlayerBiome()) {
-			lastPlayerBiome = EnvironState.getPlayerBiome();
-			lastDimension = EnvironState.getDimensionId();
-			lastPlayerX = playerX;
-			lastPlayerY = playerY;
-			lastPlayerZ = playerZ;
-			doSurvey(player, BIOME_SURVEY_RANGE);
+		if (range != ModOptions.biomeSurveyRange) {
+			range = ModOptions.biomeSurveyRange;
+			size = range * 2 + 1;
+			columns = new BiomeGenBase[size * size];
+			dirty = new boolean[size * size];
+			columnsValid = false;
+		}
+
+		// Moving between a real and a fake biome changes the nature of
+		// the survey. Otherwise a Y change does not matter, and walking
+		// only needs the edges of the window refreshed.
+		final BiomeGenBase playerBiome = EnvironState.getPlayerBiome();
+		final boolean isFake = playerBiome instanceof FakeBiome;
+		final boolean sameWorld = lastWorld == world && lastDimension == EnvironState.getDimensionId();
+		if (!sameWorld || (lastPlayerBiome != playerBiome && (isFake || lastPlayerBiome instanceof FakeBiome))) {
+			doSurvey(world, playerX, playerZ);
+		} else if (!isFake) {
+			if (!columnsValid || Math.abs(playerX - lastPlayerX) + Math.abs(playerZ - lastPlayerZ) >= size)
+				doSurvey(world, playerX, playerZ);
+			else if (playerX != lastPlayerX || playerZ != lastPlayerZ)
+				slideSurvey(world, playerX, playerZ);
+			if (hasDirty)
+				refreshSurvey(world, playerX, playerZ);
 		}
+
+		lastWorld = world;
+		lastPlayerBiome = playerBiome;
+		lastDimension = EnvironState.getDimensionId();
+		lastPlayerX = playerX;
+		lastPlayerZ = playerZ;
 	}
 
 	@Override
@@ -99,4 +221,26 @@ public final class BiomeSurveyHandler implements IClientEffectHandler {
 		return false;
 	}
 
+	@Override
+	public void onColumnsCleared() {
+		columnsValid = false;
+	}
+
+	@Override
+	public void onColumnChanged(final int x, final int z) {
+		if (columnsValid && Math.abs(x - lastPlayerX) <= range && Math.abs(z - lastPlayerZ) <= range) {
+			dirty[slot(x, z)] = true;
+			hasDirty = true;
+		}
+	}
+
+	@Override
+	public void onBlockChanged(final int x, final int y, final int z) {
+	}
+
+	@Override
+	public void onRegionChanged(final int x1, final int y1, final int z1, final int x2, final int y2,
+			final int z2) {
+	}
+
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.footsteps.Footsteps;
 import org.blockartistry.mod.DynSurround.client.fx.BlockEffectHandler;
+import org.blockartistry.mod.DynSurround.client.sound.ChannelBalancer;
 import org.blockartistry.mod.DynSurround.data.DimensionRegistry;
 
 import cpw.mods.fml.client.FMLClientHandler;
@@ -67,17 +68,23 @@ public class ClientEffectHandler {
 		MinecraftForge.EVENT_BUS.register(handler);
 		FMLCommonHandler.instance().bus().register(handler);
 
+		register(new ColumnCache());
+		register(new SkyExposureHandler());
 		register(new EnvironStateHandler());
 		register(new BiomeSurveyHandler());
 		register(new FogEffectHandler());
 		register(new BlockEffectHandler());
 
-		if (ModOptions.blockedSounds.length > 0 || ModOptions.culledSounds.length > 0)
-			register(new SoundBlockHandler());
+		register(new SoundInterceptHandler());
 
 		if (ModOptions.enableFootstepSounds)
 			register(new Footsteps());
 
+		register(new SoundPrefetchHandler());
+
+		if (ModOptions.autoConfigureChannels)
+			register(new ChannelBalancer());
+
 		if (ModOptions.auroraEnable)
 			register(new AuroraEffectHandler());
 
@@ -0,0 +1,292 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cpw.mods.fml.common.eventhandler.EventPriority;
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.IWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Caches per column information about the client world: the biome,
+ * the precipitation height, and the top solid/liquid block.  The
+ * various effect handlers and renderers hit the same columns over and
+ * over, so they share this cache rather than going to the chunk each
+ * time.  Columns are direct mapped into a fixed window by their world
+ * coordinates and are invalidated when a block in the column changes
+ * or when chunk data arrives.  Handlers that keep state of their own
+ * about the world register an IColumnListener to hear about the same
+ * changes.
+ */
+@SideOnly(Side.CLIENT)
+public final class ColumnCache implements IClientEffectHandler {
+
+	private static final int BITS = 7;
+	private static final int SIZE = 1 << BITS;
+	private static final int MASK = SIZE - 1;
+	private static final long NO_KEY = Long.MIN_VALUE;
+	private static final int NO_SLOT = Integer.MIN_VALUE;
+
+	private static final int HAS_BIOME = 1;
+	private static final int HAS_PRECIPITATION = 2;
+	private static final int HAS_TOP_SOLID = 4;
+
+	private static final long[] keys = new long[SIZE * SIZE];
+	private static final byte[] flags = new byte[SIZE * SIZE];
+	private static final BiomeGenBase[] biomes = new BiomeGenBase[SIZE * SIZE];
+	private static final int[] precipitation = new int[SIZE * SIZE];
+	private static final int[] topSolid = new int[SIZE * SIZE];
+
+	private static World cachedWorld = null;
+
+	private static final List<IColumnListener> listeners = new ArrayList<>();
+
+	static {
+		Arrays.fill(keys, NO_KEY);
+	}
+
+	private static long key(final int x, final int z) {
+		return ((long) x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+	private static int slot(final int x, final int z) {
+		return ((x & MASK) << BITS) | (z & MASK);
+	}
+
+	public static void addListener(final IColumnListener listener) {
+		listeners.add(listener);
+	}
+
+	public static void clear() {
+		Arrays.fill(keys, NO_KEY);
+		Arrays.fill(flags, (byte) 0);
+		Arrays.fill(biomes, null);
+		for (final IColumnListener listener : listeners)
+			listener.onColumnsCleared();
+	}
+
+	private static void validateWorld(final World world) {
+		if (world != cachedWorld) {
+			clear();
+			cachedWorld = world;
+		}
+	}
+
+	/*
+	 * Returns the slot if the requested value is cached, the complement
+	 * of the slot if the value needs to be filled in, or NO_SLOT if the
+	 * column can't be cached. Columns in chunks that haven't arrived from
+	 * the server are not cached because what the world reports for them
+	 * is bogus.
+	 */
+	private static int prepare(final World world, final int x, final int z, final int flag) {
+		validateWorld(world);
+		final int slot = slot(x, z);
+		final long key = key(x, z);
+		if (keys[slot] == key) {
+			if ((flags[slot] & flag) != 0)
+				return slot;
+		} else {
+			final Chunk chunk = world.getChunkFromChunkCoords(x >> 4, z >> 4);
+			if (chunk == null || chunk.isEmpty())
+				return NO_SLOT;
+			keys[slot] = key;
+			flags[slot] = 0;
+			biomes[slot] = null;
+		}
+		flags[slot] |= flag;
+		return ~slot;
+	}
+
+	public static BiomeGenBase getBiome(final World world, final int x, final int z) {
+		final int slot = prepare(world, x, z, HAS_BIOME);
+		if (slot >= 0)
+			return biomes[slot];
+		final BiomeGenBase biome = world.getBiomeGenForCoords(x, z);
+		if (slot != NO_SLOT)
+			biomes[~slot] = biome;
+		return biome;
+	}
+
+	public static int getPrecipitationHeight(final World world, final int x, final int z) {
+		final int slot = prepare(world, x, z, HAS_PRECIPITATION);
+		if (slot >= 0)
+			return precipitation[slot];
+		final int height = world.getPrecipitationHeight(x, z);
+		if (slot != NO_SLOT)
+			precipitation[~slot] = height;
+		return height;
+	}
+
+	public static int getTopSolidHeight(final World world, final int x, final int z) {
+		final int slot = prepare(world, x, z, HAS_TOP_SOLID);
+		if (slot >= 0)
+			return topSolid[slot];
+		final int height = world.getTopSolidOrLiquidBlock(x, z);
+		if (slot != NO_SLOT)
+			topSolid[~slot] = height;
+		return height;
+	}
+
+	public static void invalidate(final int x, final int z) {
+		final int slot = slot(x, z);
+		if (keys[slot] == key(x, z))
+			keys[slot] = NO_KEY;
+		for (final IColumnListener listener : listeners)
+			listener.onColumnChanged(x, z);
+	}
+
+	public static void invalidate(final int x1, final int z1, final int x2, final int z2) {
+		// Anything larger than the window wraps around and hits
+		// every slot anyway.
+		if (x2 - x1 >= SIZE || z2 - z1 >= SIZE) {
+			clear();
+			return;
+		}
+		for (int x = x1; x <= x2; x++)
+			for (int z = z1; z <= z2; z++)
+				invalidate(x, z);
+	}
+
+	public static void invalidateChunk(final int chunkX, final int chunkZ) {
+		final int x = chunkX << 4;
+		final int z = chunkZ << 4;
+		invalidate(x, z, x + 15, z + 15);
+	}
+
+	@Override
+	public void process(final World world, final EntityPlayer player) {
+		validateWorld(world);
+	}
+
+	@Override
+	public boolean hasEvents() {
+		return true;
+	}
+
+	@SubscribeEvent(priority = EventPriority.HIGHEST)
+	public void onWorldLoad(final WorldEvent.Load event) {
+		if (!event.world.isRemote)
+			return;
+		event.world.addWorldAccess(new WorldListener());
+		clear();
+		cachedWorld = event.world;
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(final WorldEvent.Unload event) {
+		if (event.world == cachedWorld) {
+			clear();
+			cachedWorld = null;
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkLoad(final ChunkEvent.Load event) {
+		if (event.world == cachedWorld)
+			invalidateChunk(event.getChunk().xPosition, event.getChunk().zPosition);
+	}
+
+	/*
+	 * Hooks block changes in the client world.
+	 */
+	private static final class WorldListener implements IWorldAccess {
+
+		@Override
+		public void markBlockForUpdate(final int x, final int y, final int z) {
+			invalidate(x, z);
+			for (final IColumnListener listener : listeners)
+				listener.onBlockChanged(x, y, z);
+		}
+
+		@Override
+		public void markBlockForRenderUpdate(final int x, final int y, final int z) {
+		}
+
+		@Override
+		public void markBlockRangeForRenderUpdate(final int x1, final int y1, final int z1, final int x2,
+				final int y2, final int z2) {
+			invalidate(x1, z1, x2, z2);
+			for (final IColumnListener listener : listeners)
+				listener.onRegionChanged(x1, y1, z1, x2, y2, z2);
+		}
+
+		@Override
+		public void playSound(final String sound, final double x, final double y, final double z,
+				final float volume, final float pitch) {
+		}
+
+		@Override
+		public void playSoundToNearExcept(final EntityPlayer player, final String sound, final double x,
+				final double y, final double z, final float volume, final float pitch) {
+		}
+
+		@Override
+		public void spawnParticle(final String particle, final double x, final double y, final double z,
+				final double motionX, final double motionY, final double motionZ) {
+		}
+
+		@Override
+		public void onEntityCreate(final Entity entity) {
+		}
+
+		@Override
+		public void onEntityDestroy(final Entity entity) {
+		}
+
+		@Override
+		public void playRecord(final String record, final int x, final int y, final int z) {
+		}
+
+		@Override
+		public void broadcastSound(final int soundId, final int x, final int y, final int z, final int data) {
+		}
+
+		@Override
+		public void playAuxSFX(final EntityPlayer player, final int sfxType, final int x, final int y, final int z,
+				final int data) {
+		}
+
+		@Override
+		public void destroyBlockPartially(final int entityId, final int x, final int y, final int z,
+				final int progress) {
+		}
+
+		@Override
+		public void onStaticEntitiesChanged() {
+		}
+	}
+}
@@ -35,6 +35,7 @@ import org.blockartistry.mod.DynSurround.client.sound.SoundEffect;
 import org.blockartistry.mod.DynSurround.client.sound.SoundManager;
 import org.blockartistry.mod.DynSurround.client.weather.Weather;
 import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
+import org.blockartistry.mod.DynSurround.data.Conditions;
 import org.blockartistry.mod.DynSurround.data.DimensionRegistry;
 import org.blockartistry.mod.DynSurround.event.DiagnosticEvent;
 import org.blockartistry.mod.DynSurround.util.PlayerUtils;
@@ -62,6 +63,7 @@ import net.minecraft.potion.Potion;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.biome.BiomeGenBase.TempCategory;
 import net.minecraftforge.client.event.RenderGameOverlayEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.living.LivingEvent.LivingJumpEvent;
@@ -111,7 +113,7 @@ public class EnvironStateHandler implements IClientEffectHandler {
 
 		// State that is gathered from the various sources
 		// to avoid requery. Used during the tick.
-		private static String conditions = "";
+		private static Conditions conditions = Conditions.EMPTY;
 		private static String biomeName = "";
 		private static BiomeGenBase playerBiome = null;
 		private static DimensionRegistry dimensionInfo = null;
@@ -147,75 +149,84 @@ public class EnvironStateHandler implements IClientEffectHandler {
 		private static final String CONDITION_TOKEN_HUMID = "humid";
 		private static final String CONDITION_TOKEN_DRY = "dry";
 		private static final String CONDITION_TOKEN_INSIDE = "inside";
-		private static final char CONDITION_SEPARATOR = '#';
 
-		private static String getPlayerConditions(final EntityPlayer player) {
-			final StringBuilder builder = new StringBuilder();
+		// Temperature category tokens, indexed by ordinal
+		private static final String[] CONDITION_TOKEN_TEMPERATURE;
+
+		static {
+			final TempCategory[] categories = TempCategory.values();
+			CONDITION_TOKEN_TEMPERATURE = new String[categories.length];
+			for (final TempCategory category : categories)
+				CONDITION_TOKEN_TEMPERATURE[category.ordinal()] = "tc" + category.name().toLowerCase();
+		}
+
+		private static final Conditions.Builder builder = new Conditions.Builder();
+
+		private static void getPlayerConditions(final EntityPlayer player, final Conditions.Builder builder) {
 			if (isPlayerHurt())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_HURT);
+				builder.add(CONDITION_TOKEN_HURT);
 			if (isPlayerHungry())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_HUNGRY);
+				builder.add(CONDITION_TOKEN_HUNGRY);
 			if (isPlayerBurning())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_BURNING);
+				builder.add(CONDITION_TOKEN_BURNING);
 			if (isPlayerSuffocating())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_NOAIR);
+				builder.add(CONDITION_TOKEN_NOAIR);
 			if (isPlayerFlying())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_FLYING);
+				builder.add(CONDITION_TOKEN_FLYING);
 			if (isPlayerSprinting())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_SPRINTING);
+				builder.add(CONDITION_TOKEN_SPRINTING);
 			if (isPlayerInLava())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_INLAVA);
+				builder.add(CONDITION_TOKEN_INLAVA);
 			if (isPlayerInvisible())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_INVISIBLE);
+				builder.add(CONDITION_TOKEN_INVISIBLE);
 			if (isPlayerBlind())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_BLIND);
+				builder.add(CONDITION_TOKEN_BLIND);
 			if (isPlayerInWater())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_INWATER);
+				builder.add(CONDITION_TOKEN_INWATER);
 			if (isFreezing())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_FREEZING);
+				builder.add(CONDITION_TOKEN_FREEZING);
 			if (isFoggy())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_FOG);
+				builder.add(CONDITION_TOKEN_FOG);
 			if (isHumid())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_HUMID);
+				builder.add(CONDITION_TOKEN_HUMID);
 			if (isDry())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_DRY);
+				builder.add(CONDITION_TOKEN_DRY);
 			if (isPlayerInside())
-				builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_INSIDE);
+				builder.add(CONDITION_TOKEN_INSIDE);
 			if (isPlayerRiding()) {
-				builder.append(CONDITION_SEPARATOR);
 				if (player.ridingEntity instanceof EntityMinecart)
-					builder.append(CONDITION_TOKEN_MINECART);
+					builder.add(CONDITION_TOKEN_MINECART);
 				else if (player.ridingEntity instanceof EntityHorse)
-					builder.append(CONDITION_TOKEN_HORSE);
+					builder.add(CONDITION_TOKEN_HORSE);
 				else if (player.ridingEntity instanceof EntityBoat)
-					builder.append(CONDITION_TOKEN_BOAT);
+					builder.add(CONDITION_TOKEN_BOAT);
 				else if (player.ridingEntity instanceof EntityPig)
-					builder.append(CONDITION_TOKEN_PIG);
+					builder.add(CONDITION_TOKEN_PIG);
 				else
-					builder.append(CONDITION_TOKEN_RIDING);
+					builder.add(CONDITION_TOKEN_RIDING);
 			}
-			builder.append(CONDITION_SEPARATOR).append(temperatureCategory);
-			builder.append(CONDITION_SEPARATOR);
-
-			return builder.toString();
+			builder.add(temperatureCategory);
+			builder.end();
 		}
 
 		private static void tick(final World world, final EntityPlayer player) {
 			EnvironState.player = player;
-			EnvironState.conditions = DimensionRegistry.getConditions(world) + getPlayerConditions(player);
+			DimensionRegistry.getConditions(world, builder.reset());
+			getPlayerConditions(player, builder);
+			EnvironState.conditions = builder.build(EnvironState.conditions);
 			EnvironState.playerBiome = PlayerUtils.getPlayerBiome(player, false);
 			EnvironState.biomeName = BiomeRegistry.resolveName(EnvironState.playerBiome);
 			EnvironState.dimensionInfo = DimensionRegistry.getData(player.worldObj);
 			EnvironState.dimensionId = world.provider.dimensionId;
 			EnvironState.dimensionName = world.provider.getDimensionName();
-			EnvironState.inside = PlayerUtils.isReallyInside(EnvironState.player);
+			EnvironState.inside = SkyExposureHandler.isInside();
 
 			final int posX = MathHelper.floor_double(player.posX);
 			final int posY = MathHelper.floor_double(player.posY);
 			final int posZ = MathHelper.floor_double(player.posZ);
 			final BiomeGenBase trueBiome = PlayerUtils.getPlayerBiome(player, true);
 			EnvironState.freezing = trueBiome.getFloatTemperature(posX, posY, posZ) < 0.15F;
-			EnvironState.temperatureCategory = "tc" + trueBiome.getTempCategory().name().toLowerCase();
+			EnvironState.temperatureCategory = CONDITION_TOKEN_TEMPERATURE[trueBiome.getTempCategory().ordinal()];
 			EnvironState.humid = trueBiome.isHighHumidity();
 			EnvironState.dry = trueBiome.getFloatRainfall() == 0;
 
@@ -223,7 +234,7 @@ public class EnvironStateHandler implements IClientEffectHandler {
 				EnvironState.tickCounter++;
 		}
 
-		public static String getConditions() {
+		public static Conditions getConditions() {
 			return conditions;
 		}
 
@@ -326,6 +337,10 @@ public class EnvironStateHandler implements IClientEffectHandler {
 			return inside;
 		}
 
+		public static float getCoverageRatio() {
+			return SkyExposureHandler.getCoverageRatio();
+		}
+
 		public static boolean isPlayerUnderground() {
 			return playerBiome == BiomeRegistry.UNDERGROUND;
 		}
@@ -461,6 +476,7 @@ public class EnvironStateHandler implements IClientEffectHandler {
 				+ player.getFoodStats().getFoodLevel() + "; s " + player.getFoodStats().getSaturationLevel());
 		event.output.add(Weather.diagnostic());
 		event.output.add("Biome: " + EnvironState.getBiomeName());
+		event.output.add(String.format("Coverage: %.2f", EnvironState.getCoverageRatio()));
 		event.output.add("Conditions: " + EnvironState.getConditions());
 	}
 
@@ -1,5 +1,4 @@
-/*
- * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
  *
  * Copyright (c) OreCruncher
  *
@@ -22,26 +21,29 @@
  * THE SOFTWARE.
  */
 
-package org.blockartistry.mod.DynSurround.asm;
+package org.blockartistry.mod.DynSurround.client;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
 
-public class Transformer extends MyTransformer {
+/*
+ * Receives the changes the ColumnCache sees in the client world so
+ * that handlers keeping their own per column or per block state can
+ * drop what went stale.  Listeners are called on the client thread.
+ */
+@SideOnly(Side.CLIENT)
+public interface IColumnListener {
 
-	private static final Logger logger = LogManager.getLogger("dsurround Transform");
+	// Everything was dropped, such as when the world changes
+	void onColumnsCleared();
 
-	public static Logger log() {
-		return logger;
-	}
+	// Something in the column changed or its chunk data arrived
+	void onColumnChanged(final int x, final int z);
 
-	public Transformer() {
-		super(logger);
-	}
+	// A single block changed
+	void onBlockChanged(final int x, final int y, final int z);
 
-	@Override
-	protected void initTransmorgrifiers() {
-		addTransmorgrifier(new PatchSoundManagerSync());
-	}
+	// A range of blocks changed, such as when chunk data arrives
+	void onRegionChanged(final int x1, final int y1, final int z1, final int x2, final int y2, final int z2);
 
 }
@@ -29,11 +29,17 @@ import java.util.List;
 
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.sound.SoundCommandQueue;
 import org.blockartistry.mod.DynSurround.client.sound.SoundEffect;
 import org.blockartistry.mod.DynSurround.client.sound.SoundManager;
-import org.blockartistry.mod.DynSurround.client.weather.Weather;
+import org.blockartistry.mod.DynSurround.client.sound.SoundScheduler;
+import org.blockartistry.mod.DynSurround.client.sound.SourcePool;
+import org.blockartistry.mod.DynSurround.client.sound.VoiceAllocator;
+import org.blockartistry.mod.DynSurround.client.sound.cache.PcmCache;
+import org.blockartistry.mod.DynSurround.client.sound.cache.SoundCache;
 import org.blockartistry.mod.DynSurround.compat.BlockPos;
 import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
+import org.blockartistry.mod.DynSurround.data.Conditions;
 import org.blockartistry.mod.DynSurround.event.DiagnosticEvent;
 import org.blockartistry.mod.DynSurround.event.RegistryReloadEvent;
 
@@ -42,15 +48,12 @@ import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import net.minecraft.block.Block;
-import net.minecraft.client.audio.ISound;
-import net.minecraft.client.audio.PositionedSoundRecord;
 import net.minecraft.client.particle.EntityDropParticleFX;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.BiomeGenBase;
-import net.minecraftforge.client.event.sound.PlaySoundEvent17;
 import net.minecraftforge.event.entity.EntityEvent.EntityConstructing;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 
@@ -59,11 +62,20 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
 
 	private static final List<EntityDropParticleFX> drops = new ArrayList<>();
 
+	// Ambient sound list from the last time it was resolved along with
+	// the state it was resolved against. The list only needs to be rebuilt
+	// when one of these changes.
+	private static List<SoundEffect> ambientSounds = null;
+	private static Conditions ambientConditions = null;
+	private static boolean ambientBiomeSounds;
+	private static int ambientSurvey;
+	private static int ambientRegistry;
+
 	private static boolean doBiomeSounds() {
 		return EnvironState.isPlayerUnderground() || !EnvironState.isPlayerInside();
 	}
 
-	private static List<SoundEffect> getBiomeSounds(final String conditions) {
+	private static List<SoundEffect> getBiomeSounds(final Conditions conditions) {
 		// Need to collect sounds from all the applicable biomes
 		// along with their weights.
 		final TObjectIntHashMap<SoundEffect> sounds = new TObjectIntHashMap<>();
@@ -85,9 +97,32 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
 		return result;
 	}
 
+	private static List<SoundEffect> getAmbientSounds(final Conditions conditions) {
+		final boolean doBiomeSounds = doBiomeSounds();
+		final int survey = BiomeSurveyHandler.getGeneration();
+		final int registry = BiomeRegistry.getGeneration();
+
+		if (ambientSounds == null || doBiomeSounds != ambientBiomeSounds || survey != ambientSurvey
+				|| registry != ambientRegistry || conditions != ambientConditions) {
+			final List<SoundEffect> sounds = new ArrayList<>();
+			if (doBiomeSounds)
+				sounds.addAll(getBiomeSounds(conditions));
+			sounds.addAll(BiomeRegistry.getSounds(BiomeRegistry.PLAYER, conditions));
+
+			ambientSounds = sounds;
+			ambientConditions = conditions;
+			ambientBiomeSounds = doBiomeSounds;
+			ambientSurvey = survey;
+			ambientRegistry = registry;
+		}
+
+		return ambientSounds;
+	}
+
 	private static void resetSounds() {
 		SoundManager.clearSounds();
 		drops.clear();
+		ambientSounds = null;
 	}
 
 	@Override
@@ -100,14 +135,9 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
 		}
 
 		final BiomeGenBase playerBiome = EnvironState.getPlayerBiome();
-		final String conditions = EnvironState.getConditions();
+		final Conditions conditions = EnvironState.getConditions();
 
-		final List<SoundEffect> sounds = new ArrayList<>();
-		if (doBiomeSounds())
-			sounds.addAll(getBiomeSounds(conditions));
-		sounds.addAll(BiomeRegistry.getSounds(BiomeRegistry.PLAYER, conditions));
-
-		SoundManager.queueAmbientSounds(sounds);
+		SoundManager.queueAmbientSounds(getAmbientSounds(conditions));
 
 		if (doBiomeSounds()) {
 			final SoundEffect sound = BiomeRegistry.getSpotSound(playerBiome, conditions, EnvironState.RANDOM);
@@ -142,8 +172,11 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
 	 */
 	@SubscribeEvent
 	public void playerJoinWorldEvent(final EntityJoinWorldEvent event) {
-		if (event.entity.worldObj.isRemote && EnvironState.isPlayer(event.entity))
+		if (event.entity.worldObj.isRemote && EnvironState.isPlayer(event.entity)) {
+			// Nothing scheduled against the old world should play in the new one
+			SoundScheduler.cancelAll();
 			resetSounds();
+		}
 	}
 
 	@SubscribeEvent
@@ -151,6 +184,13 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
         String builder = "SoundSystem: " + SoundManager.currentSoundCount() + '/' +
             SoundManager.maxSoundCount();
 		event.output.add(builder);
+		event.output.add(VoiceAllocator.diagnostic());
+		event.output.add(SoundScheduler.diagnostic());
+		event.output.add(SoundCommandQueue.diagnostic());
+		event.output.add(SourcePool.diagnostic());
+		event.output.add(SoundCache.diagnostic());
+		if (PcmCache.isEnabled())
+			event.output.add(PcmCache.diagnostic());
         event.output.addAll(SoundManager.getSounds());
 	}
 
@@ -190,28 +230,4 @@ public class PlayerSoundEffectHandler implements IClientEffectHandler {
 		drops.clear();
 	}
 
-	/*
-	 * Determines if the sound needs to be replaced by the event handler.
-	 */
-	private static boolean replaceRainSound(final String name) {
-		return "ambient.weather.rain".equals(name);
-	}
-
-	/*
-	 * Intercept the sound events and patch up the rain sound. If the rain
-	 * experience is to be Vanilla let it just roll on through.
-	 */
-	@SubscribeEvent
-	public void soundEvent(final PlaySoundEvent17 event) {
-		if (event.sound == null)
-			return;
-
-		if ((ModOptions.alwaysOverrideSound || !Weather.doVanilla()) && replaceRainSound(event.name)) {
-			final ISound sound = event.sound;
-			event.result = new PositionedSoundRecord(Weather.getCurrentStormSound(),
-					Weather.getCurrentVolume(), sound.getPitch(), sound.getXPosF(), sound.getYPosF(),
-					sound.getZPosF());
-		}
-	}
-
 }
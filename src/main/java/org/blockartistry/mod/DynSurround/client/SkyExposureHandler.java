@@ -0,0 +1,142 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client;
+
+import java.util.Arrays;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+
+/*
+ * Tracks how much of the sky above the area around the player is
+ * covered.  The top solid block of each column in the grid is retained
+ * between ticks; only columns that enter the grid as the player moves,
+ * or that had a block change, are looked up again.
+ */
+@SideOnly(Side.CLIENT)
+public final class SkyExposureHandler implements IClientEffectHandler, IColumnListener {
+
+	private static final int RANGE = 3;
+	private static final int SIZE = RANGE * 2 + 1;
+	private static final int AREA = SIZE * SIZE;
+	private static final float INSIDE_THRESHOLD = 0.42F;
+	private static final long NO_KEY = Long.MIN_VALUE;
+
+	private static final long[] keys = new long[AREA];
+	private static final int[] heights = new int[AREA];
+
+	private static World lastWorld = null;
+	private static float coverage;
+
+	static {
+		Arrays.fill(keys, NO_KEY);
+	}
+
+	public SkyExposureHandler() {
+		ColumnCache.addListener(this);
+	}
+
+	private static long key(final int x, final int z) {
+		return ((long) x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+	private static int slot(final int x, final int z) {
+		return Math.floorMod(x, SIZE) * SIZE + Math.floorMod(z, SIZE);
+	}
+
+	/*
+	 * Ratio of columns around the player whose top block is above
+	 * the player's head. 0 is open sky, 1 is completely covered.
+	 */
+	public static float getCoverageRatio() {
+		return coverage;
+	}
+
+	public static boolean isInside() {
+		return coverage > INSIDE_THRESHOLD;
+	}
+
+	public static void invalidate(final int x, final int z) {
+		final int slot = slot(x, z);
+		if (keys[slot] == key(x, z))
+			keys[slot] = NO_KEY;
+	}
+
+	public static void invalidateAll() {
+		Arrays.fill(keys, NO_KEY);
+	}
+
+	@Override
+	public void process(final World world, final EntityPlayer player) {
+		if (world != lastWorld) {
+			invalidateAll();
+			lastWorld = world;
+		}
+
+		final int targetY = MathHelper.floor_double(player.posY);
+		final int baseX = MathHelper.floor_double(player.posX);
+		final int baseZ = MathHelper.floor_double(player.posZ);
+		int seeSky = 0;
+		for (int x = baseX - RANGE; x <= baseX + RANGE; x++)
+			for (int z = baseZ - RANGE; z <= baseZ + RANGE; z++) {
+				final int slot = slot(x, z);
+				final long key = key(x, z);
+				if (keys[slot] != key) {
+					keys[slot] = key;
+					heights[slot] = ColumnCache.getTopSolidHeight(world, x, z);
+				}
+				if ((heights[slot] - targetY) < 2)
+					++seeSky;
+			}
+
+		coverage = 1.0F - ((float) seeSky / AREA);
+	}
+
+	@Override
+	public boolean hasEvents() {
+		return false;
+	}
+
+	@Override
+	public void onColumnsCleared() {
+		invalidateAll();
+	}
+
+	@Override
+	public void onColumnChanged(final int x, final int z) {
+		invalidate(x, z);
+	}
+
+	@Override
+	public void onBlockChanged(final int x, final int y, final int z) {
+	}
+
+	@Override
+	public void onRegionChanged(final int x1, final int y1, final int z1, final int x2, final int y2,
+			final int z2) {
+	}
+}
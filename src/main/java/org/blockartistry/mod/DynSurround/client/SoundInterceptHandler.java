@@ -0,0 +1,298 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client;
+
+import java.util.Arrays;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.ModOptions;
+import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.sound.SoundManager;
+import org.blockartistry.mod.DynSurround.client.sound.VoiceAllocator;
+import org.blockartistry.mod.DynSurround.client.weather.Weather;
+import org.blockartistry.mod.DynSurround.data.SoundRegistry;
+import org.blockartistry.mod.DynSurround.event.DiagnosticEvent;
+import org.blockartistry.mod.DynSurround.event.SoundConfigEvent;
+
+import cpw.mods.fml.common.eventhandler.EventPriority;
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.ISound;
+import net.minecraft.client.audio.PositionedSoundRecord;
+import net.minecraft.client.audio.SoundEventAccessorComposite;
+import net.minecraft.client.audio.SoundHandler;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.MathHelper;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+import net.minecraftforge.client.event.sound.PlaySoundEvent17;
+
+/*
+ * Single point where sounds played by the game are intercepted.  Each
+ * registered sound is given a small ID when the sound config is loaded
+ * and the handling for that ID - block, cull, replace with the storm
+ * sound, volume scale - is worked out up front.  Handling a sound event
+ * is then one hash lookup on the sound location and an array read.
+ *
+ * Culling is done per area rather than per sound so a flood of sounds
+ * at one end of a base does not silence the same sound next to the
+ * player.  On top of that once a tick has started a set number of
+ * positioned sounds, further low priority or distant ones are dropped
+ * so a mob farm cannot use up the sound channels.
+ */
+@SideOnly(Side.CLIENT)
+public class SoundInterceptHandler implements IClientEffectHandler {
+
+	private static final int BLOCK = 0x1;
+	private static final int CULL = 0x2;
+	private static final int STORM = 0x4;
+
+	private static final String RAIN_SOUND = "ambient.weather.rain";
+	private static final int NO_SOUND = -1;
+
+	// Sounds over the tick budget are still played if they are at least
+	// this urgent; the player's own sounds and anything close by.
+	private static final float BUDGET_URGENCY = 0.5F;
+
+	private static final class Table {
+		public final TObjectIntHashMap<ResourceLocation> ids;
+		public final int[] verdicts;
+		public final float[] volumes;
+		public final float[] priorities;
+
+		public Table(final int size) {
+			this.ids = new TObjectIntHashMap<>(Math.max(size, Constants.DEFAULT_CAPACITY),
+					Constants.DEFAULT_LOAD_FACTOR, NO_SOUND);
+			this.verdicts = new int[size];
+			this.volumes = new float[size];
+			this.priorities = new float[size];
+			Arrays.fill(this.volumes, 1.0F);
+			Arrays.fill(this.priorities, 1.0F);
+		}
+	}
+
+	private static Table table = new Table(0);
+
+	// Culled sounds are tracked per sound and 8 block cell. Each bucket
+	// remembers the tick and prominence of the last instance let through.
+	private static final int CELL_SHIFT = 3;
+	private static final int PURGE_INTERVAL = 100;
+	private final TLongLongHashMap buckets = new TLongLongHashMap(Constants.DEFAULT_CAPACITY,
+			Constants.DEFAULT_LOAD_FACTOR, Long.MIN_VALUE, Long.MIN_VALUE);
+	private int lastPurge;
+
+	// Positioned sounds started in the current tick
+	private int budgetTick;
+	private int budgetUsed;
+
+	private int culled;
+	private int overBudget;
+
+	public SoundInterceptHandler() {
+	}
+
+	@Override
+	public void process(final World world, final EntityPlayer player) {
+		final int currentTick = EnvironState.getTickCounter();
+		if (currentTick - this.lastPurge < PURGE_INTERVAL)
+			return;
+		this.lastPurge = currentTick;
+
+		final int threshold = ModOptions.soundCullingThreshold;
+		this.buckets.retainEntries((key, value) -> currentTick - (int) (value >> 32) < threshold);
+	}
+
+	private static long bucketKey(final int id, final ISound sound) {
+		final long x = MathHelper.floor_float(sound.getXPosF()) >> CELL_SHIFT;
+		final long y = MathHelper.floor_float(sound.getYPosF()) >> (CELL_SHIFT + 1);
+		final long z = MathHelper.floor_float(sound.getZPosF()) >> CELL_SHIFT;
+		return ((long) id << 48) | ((x & 0x3FFFFF) << 26) | ((z & 0x3FFFFF) << 4) | (y & 0xF);
+	}
+
+	/*
+	 * How far the sound is from the player relative to how far it can be
+	 * heard. Smaller is more prominent.
+	 */
+	private static float getProminence(final ISound sound, final EntityPlayer player) {
+		final float dx = sound.getXPosF() - (float) player.posX;
+		final float dy = sound.getYPosF() - (float) player.posY;
+		final float dz = sound.getZPosF() - (float) player.posZ;
+		final float range = 16.0F * Math.max(1.0F, sound.getVolume());
+		return MathHelper.sqrt_float(dx * dx + dy * dy + dz * dz) / range;
+	}
+
+	/*
+	 * A culled sound is let through if nothing was let through from the
+	 * same cell within the threshold, or if it is more prominent than
+	 * the one that was.
+	 */
+	private boolean cull(final int id, final ISound sound, final EntityPlayer player, final int currentTick) {
+		final long key = bucketKey(id, sound);
+		final float prominence = getProminence(sound, player);
+		final long last = this.buckets.get(key);
+		if (last != Long.MIN_VALUE && currentTick - (int) (last >> 32) < ModOptions.soundCullingThreshold
+				&& prominence >= Float.intBitsToFloat((int) last))
+			return true;
+		this.buckets.put(key, ((long) currentTick << 32) | (Float.floatToIntBits(prominence) & 0xFFFFFFFFL));
+		return false;
+	}
+
+	/*
+	 * Limits the number of positioned sounds started each tick. Sounds
+	 * without attenuation, such as the GUI sounds, are not counted. Once
+	 * the budget is used only sounds with low priority or far from the
+	 * player are shed.
+	 */
+	private boolean overBudget(final ISound sound, final EntityPlayer player, final int currentTick) {
+		if (ModOptions.soundTickBudget <= 0 || sound.getAttenuationType() == ISound.AttenuationType.NONE)
+			return false;
+		if (this.budgetTick != currentTick) {
+			this.budgetTick = currentTick;
+			this.budgetUsed = 0;
+		}
+		return ++this.budgetUsed > ModOptions.soundTickBudget
+				&& VoiceAllocator.getUrgency(sound, player) < BUDGET_URGENCY;
+	}
+
+	@SubscribeEvent
+	public void diagnostics(final DiagnosticEvent.Gather event) {
+		event.output.add(String.format("Sound Intercept: culled %d; over budget %d; buckets %d", this.culled,
+				this.overBudget, this.buckets.size()));
+	}
+
+	@Override
+	public boolean hasEvents() {
+		return true;
+	}
+
+	/*
+	 * Volume scale configured for the sound, 1.0 if there is none.
+	 */
+	public static float getVolumeScale(final ResourceLocation resource) {
+		final Table t = table;
+		final int id = t.ids.get(resource);
+		return id == NO_SOUND ? SoundRegistry.getVolumeScale(resource.toString()) : t.volumes[id];
+	}
+
+	/*
+	 * Voice priority of the sound based on its category, 1.0 if unknown.
+	 */
+	public static float getPriority(final ResourceLocation resource) {
+		final Table t = table;
+		final int id = t.ids.get(resource);
+		return id == NO_SOUND ? 1.0F : t.priorities[id];
+	}
+
+	@SubscribeEvent
+	public void soundConfigReload(final SoundConfigEvent.Reload event) {
+		final SoundHandler handler = Minecraft.getMinecraft().getSoundHandler();
+		final Table t = new Table(handler.sndRegistry.getKeys().size());
+
+		int id = 0;
+		for (final Object resource : handler.sndRegistry.getKeys()) {
+			final ResourceLocation location = (ResourceLocation) resource;
+			final String rs = location.toString();
+
+			int verdict = 0;
+			if (SoundRegistry.isSoundBlocked(rs)) {
+				ModLog.debug("Blocking sound '%s'", rs);
+				verdict |= BLOCK;
+			} else if (SoundRegistry.isSoundCulled(rs)) {
+				ModLog.debug("Culling sound '%s'", rs);
+				verdict |= CULL;
+			}
+
+			// Rain is only replaced when biome sounds are in play
+			if (ModOptions.enableBiomeSounds && RAIN_SOUND.equals(location.getResourcePath()))
+				verdict |= STORM;
+
+			t.ids.put(location, id);
+			t.verdicts[id] = verdict;
+			t.volumes[id] = SoundRegistry.getVolumeScale(rs);
+			final SoundEventAccessorComposite sound = handler.getSound(location);
+			if (sound != null)
+				t.priorities[id] = VoiceAllocator.getCategoryPriority(sound.getSoundCategory());
+			id++;
+		}
+
+		table = t;
+		this.buckets.clear();
+		SoundManager.invalidateCategoryVolumes();
+	}
+
+	@SubscribeEvent(priority = EventPriority.HIGHEST)
+	public void soundEvent(final PlaySoundEvent17 event) {
+		if (event.sound == null || event.sound.getPositionedSoundLocation() == null)
+			return;
+
+		final Table t = table;
+		final int id = t.ids.get(event.sound.getPositionedSoundLocation());
+		final int verdict = id == NO_SOUND ? 0 : t.verdicts[id];
+
+		if ((verdict & BLOCK) != 0) {
+			event.result = null;
+			return;
+		}
+
+		final EntityPlayer player = EnvironState.getPlayer();
+		if (player != null) {
+			final int currentTick = EnvironState.getTickCounter();
+			if ((verdict & CULL) != 0 && ModOptions.soundCullingThreshold > 0
+					&& cull(id, event.sound, player, currentTick)) {
+				this.culled++;
+				event.result = null;
+				return;
+			}
+
+			if (overBudget(event.sound, player, currentTick)) {
+				this.overBudget++;
+				event.result = null;
+				return;
+			}
+		}
+
+		// Patch up the rain sound. If the rain experience is to be
+		// Vanilla let it just roll on through.
+		if ((verdict & STORM) != 0 && (ModOptions.alwaysOverrideSound || !Weather.doVanilla())) {
+			final ISound sound = event.sound;
+			event.result = new PositionedSoundRecord(Weather.getCurrentStormSound(), Weather.getCurrentVolume(),
+					sound.getPitch(), sound.getXPosF(), sound.getYPosF(), sound.getZPosF());
+		}
+	}
+
+	// Voices are handed out after every other handler has had its say so
+	// that a sound is not stopped for one that is then dropped or replaced.
+	@SubscribeEvent(priority = EventPriority.LOWEST)
+	public void allocateVoice(final PlaySoundEvent17 event) {
+		if (event.result == null || EnvironState.getPlayer() == null)
+			return;
+		if (!VoiceAllocator.allocate(event.result))
+			event.result = null;
+	}
+}
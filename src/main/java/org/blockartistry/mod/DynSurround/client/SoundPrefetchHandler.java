@@ -0,0 +1,234 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.footsteps.Footsteps;
+import org.blockartistry.mod.DynSurround.client.sound.SoundEffect;
+import org.blockartistry.mod.DynSurround.client.sound.cache.PcmCache;
+import org.blockartistry.mod.DynSurround.client.sound.cache.SoundCache;
+import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
+import org.blockartistry.mod.DynSurround.data.BlockRegistry;
+import org.blockartistry.mod.DynSurround.data.Conditions;
+import org.blockartistry.mod.DynSurround.event.RegistryReloadEvent;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.ReflectionHelper;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.SoundEventAccessor;
+import net.minecraft.client.audio.SoundEventAccessorComposite;
+import net.minecraft.client.audio.SoundHandler;
+import net.minecraft.client.audio.SoundPoolEntry;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.BiomeGenBase;
+
+/*
+ * Warms the sound cache in the background so the first play of an
+ * ambient loop or footstep does not have to read the sound from the
+ * resource pack on the spot.  After the registries load the sound
+ * names they reference are resolved to their sound files.  A few
+ * files each tick are opened on the client thread, since the resource
+ * manager is not thread safe, and read by a small worker pool.  Sounds
+ * that match the current biome go first.
+ */
+@SideOnly(Side.CLIENT)
+public class SoundPrefetchHandler implements IClientEffectHandler {
+
+	private static final int WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+	private static final int OPEN_PER_TICK = 8;
+
+	private static Field soundPool;
+	private static Field poolEntry;
+
+	static {
+		try {
+			soundPool = ReflectionHelper.findField(SoundEventAccessorComposite.class, "soundPool", "field_148736_a");
+			poolEntry = ReflectionHelper.findField(SoundEventAccessor.class, "entry", "field_148739_a");
+		} catch (final Throwable t) {
+			ModLog.warn("Unable to locate sound pool fields; sound prefetch disabled");
+			soundPool = null;
+			poolEntry = null;
+		}
+	}
+
+	private final ThreadPoolExecutor executor;
+
+	// Bumped for each batch; queued work from an older batch is dropped
+	private final AtomicInteger generation = new AtomicInteger();
+	private final ArrayDeque<ResourceLocation> pending = new ArrayDeque<>();
+	private boolean requested = true;
+
+	public SoundPrefetchHandler() {
+		this.executor = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r, "DSurround Prefetch " + this.count.incrementAndGet());
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					}
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void process(final World world, final EntityPlayer player) {
+		if (PcmCache.isEnabled())
+			PcmCache.upload();
+
+		if (soundPool == null)
+			return;
+		if (!this.requested) {
+			dispatch();
+			return;
+		}
+		this.requested = false;
+
+		final Set<String> names = new LinkedHashSet<>();
+
+		// Whatever can be heard right now goes first
+		final Conditions conditions = EnvironState.getConditions();
+		addSounds(names, BiomeRegistry.getSounds(EnvironState.getPlayerBiome(), conditions));
+		addSounds(names, BiomeRegistry.getSounds(BiomeRegistry.PLAYER, conditions));
+
+		BiomeRegistry.getSoundNames(names);
+		BlockRegistry.getSoundNames(names);
+		if (Footsteps.INSTANCE != null)
+			Footsteps.INSTANCE.getSoundNames(names);
+
+		final List<ResourceLocation> resources = resolve(names);
+		this.generation.incrementAndGet();
+		this.pending.clear();
+		this.pending.addAll(resources);
+
+		ModLog.debug("Prefetching %d sound files for %d sounds", resources.size(), names.size());
+	}
+
+	// Opens the next few files and hands them to the workers. Every
+	// entry taken off the queue counts against the limit, including the
+	// ones the sound cache no longer has room for.
+	private void dispatch() {
+		final int batch = this.generation.get();
+		for (int i = 0; i < OPEN_PER_TICK && !this.pending.isEmpty(); i++) {
+			final ResourceLocation resource = this.pending.poll();
+			if (!SoundCache.wantsPrefetch(resource)) {
+				if (PcmCache.isEnabled())
+					this.executor.execute(() -> {
+						if (this.generation.get() == batch)
+							PcmCache.prefetch(resource);
+					});
+				continue;
+			}
+
+			final InputStream stream;
+			try {
+				stream = Minecraft.getMinecraft().getResourceManager().getResource(resource).getInputStream();
+			} catch (final Throwable t) {
+				ModLog.debug("Unable to open [%s] for prefetch", resource.toString());
+				continue;
+			}
+
+			this.executor.execute(() -> {
+				if (this.generation.get() != batch) {
+					close(stream);
+					return;
+				}
+				SoundCache.prefetch(resource, stream);
+				PcmCache.prefetch(resource);
+			});
+		}
+	}
+
+	private static void close(final InputStream stream) {
+		try {
+			stream.close();
+		} catch (final Throwable ignored) {
+		}
+	}
+
+	private static void addSounds(final Set<String> names, final List<SoundEffect> sounds) {
+		for (final SoundEffect sound : sounds)
+			names.add(sound.sound);
+	}
+
+	// Runs on the client thread; the sound registry is not thread safe
+	private static List<ResourceLocation> resolve(final Set<String> names) {
+		final SoundHandler handler = Minecraft.getMinecraft().getSoundHandler();
+		final Set<ResourceLocation> resources = new LinkedHashSet<>();
+		for (final String name : names) {
+			final SoundEventAccessorComposite sound = handler.getSound(new ResourceLocation(name));
+			if (sound != null)
+				resolve(sound, resources);
+		}
+		return new ArrayList<>(resources);
+	}
+
+	private static void resolve(final SoundEventAccessorComposite sound, final Set<ResourceLocation> resources) {
+		try {
+			for (final Object accessor : (List<?>) soundPool.get(sound)) {
+				if (accessor instanceof SoundEventAccessorComposite composite) {
+					resolve(composite, resources);
+				} else if (accessor instanceof SoundEventAccessor) {
+					final SoundPoolEntry entry = (SoundPoolEntry) poolEntry.get(accessor);
+					if (entry != null)
+						resources.add(entry.getSoundPoolEntryLocation());
+				}
+			}
+		} catch (final Throwable t) {
+			ModLog.debug("Unable to resolve sound pool for prefetch");
+		}
+	}
+
+	@SubscribeEvent
+	public void registryReload(final RegistryReloadEvent event) {
+		this.requested = true;
+	}
+
+	@Override
+	public boolean hasEvents() {
+		return true;
+	}
+
+}
@@ -26,6 +26,7 @@ package org.blockartistry.mod.DynSurround.client.fog;
 import javax.annotation.Nonnull;
 
 import org.blockartistry.mod.DynSurround.client.weather.Weather;
+import org.blockartistry.mod.DynSurround.client.ColumnCache;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
 import org.blockartistry.mod.DynSurround.compat.BlockPos;
 import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
@@ -87,7 +88,7 @@ public class BiomeFogColorCalculator extends VanillaFogColorCalculator {
 					pos.setPos(playerX + x, 0, playerZ + z);
 
 					this.doScan = this.doScan | world.blockExists(pos.getX(), pos.getY(), pos.getZ());
-					final BiomeGenBase biome = world.getBiomeGenForCoords(pos.getX(), pos.getZ());
+					final BiomeGenBase biome = ColumnCache.getBiome(world, pos.getX(), pos.getZ());
 					final Color color;
 					
 					// Fetch the color we are dealing with.
@@ -25,6 +25,7 @@ package org.blockartistry.mod.DynSurround.client.fog;
 
 import javax.annotation.Nonnull;
 
+import org.blockartistry.mod.DynSurround.client.ColumnCache;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
 import org.blockartistry.mod.DynSurround.client.weather.Weather;
 import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
@@ -98,7 +99,7 @@ public class BiomeFogRangeCalculator extends VanillaFogRangeCalculator {
 			for (int z = -DISTANCE; z <= DISTANCE; ++z) {
 				final int theX = playerX + x;
 				final int theZ = playerZ + z;
-				final BiomeGenBase biome = world.getBiomeGenForCoords(theX, theZ);
+				final BiomeGenBase biome = ColumnCache.getBiome(world, theX, theZ);
 				float distancePart = 1F;
 				final float weightPart = 1;
 
@@ -26,12 +26,14 @@ package org.blockartistry.mod.DynSurround.client.footsteps;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Scanner;
 
 import org.blockartistry.mod.DynSurround.ModLog;
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.IClientEffectHandler;
+import org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces.ILibrary;
 import org.blockartistry.mod.DynSurround.client.footsteps.game.system.ForgeDictionary;
 import org.blockartistry.mod.DynSurround.client.footsteps.game.system.PFIsolator;
 import org.blockartistry.mod.DynSurround.client.footsteps.game.system.PFReaderH;
@@ -48,6 +50,8 @@ import org.blockartistry.mod.DynSurround.client.footsteps.mcpackage.interfaces.I
 import org.blockartistry.mod.DynSurround.client.footsteps.parsers.AcousticsJsonReader;
 import org.blockartistry.mod.DynSurround.client.footsteps.parsers.Register;
 import org.blockartistry.mod.DynSurround.client.footsteps.util.property.simple.ConfigProperty;
+import org.blockartistry.mod.DynSurround.client.sound.SoundScheduler;
+import org.blockartistry.mod.DynSurround.event.RegistryReloadEvent;
 
 import cpw.mods.fml.common.eventhandler.EventPriority;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
@@ -58,6 +62,7 @@ import net.minecraft.client.resources.IResourceManagerReloadListener;
 import net.minecraft.client.resources.IResourcePack;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.world.WorldEvent;
 
 @SideOnly(Side.CLIENT)
@@ -91,6 +96,8 @@ public class Footsteps implements IResourceManagerReloadListener, IClientEffectH
 		 * this.isolator.setGenerator(getConfig().getInteger("custom.stance") == 0 ? new
 		 * PFReaderH(this.isolator) : new PFReaderQP(this.isolator));
 		 */
+
+		MinecraftForge.EVENT_BUS.post(new RegistryReloadEvent.Acoustics());
 	}
 
 	private void reloadVariator(final List<IResourcePack> repo) {
@@ -165,6 +172,8 @@ public class Footsteps implements IResourceManagerReloadListener, IClientEffectH
 	}
 
 	private void reloadAcoustics(final List<IResourcePack> repo) {
+		// Steps queued by the previous acoustics are dropped
+		SoundScheduler.cancel(SoundScheduler.FOOTSTEPS);
 		final AcousticsManager acoustics = new AcousticsManager(this.isolator);
 		Scanner scanner = null;
 		InputStream stream = null;
@@ -230,4 +239,10 @@ public class Footsteps implements IResourceManagerReloadListener, IClientEffectH
 	public IBlockMap getBlockMap() {
 		return this.isolator.getBlockMap();
 	}
+
+	public void getSoundNames(final Collection<String> names) {
+		final ILibrary acoustics = this.isolator.getAcoustics();
+		if (acoustics != null)
+			acoustics.getSoundNames(names);
+	}
 }
@@ -24,6 +24,7 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.implem;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -78,6 +79,12 @@ public abstract class AcousticsLibrary implements ILibrary {
 		}
 	}
 
+	@Override
+	public void getSoundNames(final Collection<String> names) {
+		for (final IAcoustic acoustic : this.acoustics.values())
+			acoustic.getSoundNames(names);
+	}
+
 	protected void onAcousticNotFound(final Object location, final String acousticName, final EventType event,
 			final IOptions inputOptions) {
 		ModLog.debug("Tried to play a missing acoustic: " + acousticName);
@@ -24,6 +24,7 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.implem;
 
+import java.util.Collection;
 import java.util.Random;
 
 import org.apache.commons.lang3.StringUtils;
@@ -70,6 +71,12 @@ public class BasicAcoustic implements IAcoustic {
 		player.playSound(location, this.soundName, volume, pitch, this.outputOptions);
 	}
 
+	@Override
+	public void getSoundNames(final Collection<String> names) {
+		if (!StringUtils.isEmpty(this.soundName))
+			names.add(this.soundName);
+	}
+
 	private float generateVolume(final Random rng) {
 		return randAB(rng, this.volMin, this.volMax);
 	}
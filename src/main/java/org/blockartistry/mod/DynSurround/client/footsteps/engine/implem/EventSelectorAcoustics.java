@@ -24,6 +24,7 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.implem;
 
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -61,6 +62,12 @@ public class EventSelectorAcoustics implements INamedAcoustic {
 			playSound(player, location, event.getTransitionDestination(), inputOptions);
 	}
 
+	@Override
+	public void getSoundNames(final Collection<String> names) {
+		for (final IAcoustic acoustic : this.pairs.values())
+			acoustic.getSoundNames(names);
+	}
+
 	public void setAcousticPair(final EventType type, final IAcoustic acoustic) {
 		this.pairs.put(type, acoustic);
 	}
@@ -25,6 +25,7 @@
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.implem;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces.EventType;
@@ -69,4 +70,10 @@ public class ProbabilityWeightsAcoustic implements IAcoustic {
 
 		this.acoustics.get(i - 1).playSound(player, location, event, inputOptions);
 	}
+
+	@Override
+	public void getSoundNames(final Collection<String> names) {
+		for (final IAcoustic acoustic : this.acoustics)
+			acoustic.getSoundNames(names);
+	}
 }
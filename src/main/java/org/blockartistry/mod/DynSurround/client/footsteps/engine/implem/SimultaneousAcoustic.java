@@ -54,4 +54,10 @@ public class SimultaneousAcoustic implements IAcoustic {
 
 	}
 
+	@Override
+	public void getSoundNames(final Collection<String> names) {
+		for (final IAcoustic acoustic : this.acoustics)
+			acoustic.getSoundNames(names);
+	}
+
 }
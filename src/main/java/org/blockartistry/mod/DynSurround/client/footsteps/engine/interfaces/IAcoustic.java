@@ -24,6 +24,8 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces;
 
+import java.util.Collection;
+
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 
@@ -39,4 +41,9 @@ public interface IAcoustic {
 	 */
     void playSound(ISoundPlayer player, Object location, EventType event, IOptions inputOptions);
 
+	/**
+	 * Adds the names of the sounds this acoustic can play.
+	 */
+    void getSoundNames(Collection<String> names);
+
 }
@@ -24,6 +24,8 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces;
 
+import java.util.Collection;
+
 import org.blockartistry.mod.DynSurround.client.footsteps.game.system.Association;
 
 import cpw.mods.fml.relauncher.Side;
@@ -51,4 +53,9 @@ public interface ILibrary {
 	 * Run various things, such as queued sounds.
 	 */
     void think();
+
+	/**
+	 * Adds the names of the sounds the acoustics in the library can play.
+	 */
+    void getSoundNames(final Collection<String> names);
 }
@@ -24,9 +24,6 @@
 
 package org.blockartistry.mod.DynSurround.client.footsteps.mcpackage.implem;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Locale;
 import java.util.Random;
 
@@ -39,6 +36,7 @@ import org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces.ISou
 import org.blockartistry.mod.DynSurround.client.footsteps.game.system.Association;
 import org.blockartistry.mod.DynSurround.client.footsteps.mcpackage.interfaces.IDefaultStepPlayer;
 import org.blockartistry.mod.DynSurround.client.footsteps.mcpackage.interfaces.IIsolator;
+import org.blockartistry.mod.DynSurround.client.sound.SoundScheduler;
 import org.blockartistry.mod.DynSurround.util.MyUtils;
 import org.blockartistry.mod.DynSurround.util.random.XorShiftRandom;
 
@@ -63,9 +61,7 @@ public class AcousticsManager extends AcousticsLibrary implements ISoundPlayer,
 	private static final float LATENESS_THRESHOLD_DIVIDER = 1.2f;
 	private static final double EARLYNESS_THRESHOLD_POW = 0.75d;
 
-	private final List<PendingSound> pending = new ArrayList<>();
 	private final IIsolator isolator;
-	private long minimum;
 
 	public AcousticsManager(final IIsolator isolator) {
 		this.isolator = isolator;
@@ -101,13 +97,15 @@ public class AcousticsManager extends AcousticsLibrary implements ISoundPlayer,
 				final long delay = randAB(RANDOM, (Long) options.getOption(Option.DELAY_MIN),
 						(Long) options.getOption(Option.DELAY_MAX));
 
-				if (delay < this.minimum) {
-					this.minimum = delay;
-				}
+				final PendingSound sound = new PendingSound(this, location, soundName, volume, pitch, null,
+						MyUtils.currentTimeMillis() + delay,
+						options.hasOption(Option.SKIPPABLE) ? -1 : (Long) options.getOption(Option.DELAY_MAX));
 
-				this.pending.add(
-						new PendingSound(location, soundName, volume, pitch, null, MyUtils.currentTimeMillis() + delay,
-								options.hasOption(Option.SKIPPABLE) ? -1 : (Long) options.getOption(Option.DELAY_MAX)));
+				// Wake up as early as the sound is allowed to play
+				long early = 0;
+				if (USING_EARLYNESS && sound.getMaximumBase() >= 0)
+					early = (long) Math.pow(sound.getMaximumBase(), EARLYNESS_THRESHOLD_POW);
+				SoundScheduler.schedule(sound, delay - early);
 			} else {
 				actuallyPlaySound((Entity) location, soundName, volume, pitch);
 			}
@@ -140,39 +138,26 @@ public class AcousticsManager extends AcousticsLibrary implements ISoundPlayer,
 
 	@Override
 	public void think() {
-		if (this.pending.isEmpty() || MyUtils.currentTimeMillis() < this.minimum)
-			return;
+		SoundScheduler.advance();
+	}
 
-		long newMinimum = Long.MAX_VALUE;
+	void expire(final PendingSound sound) {
 		final long time = MyUtils.currentTimeMillis();
 
-		final Iterator<PendingSound> iter = this.pending.iterator();
-		while (iter.hasNext()) {
-			final PendingSound sound = iter.next();
-
-			if (time >= sound.getTimeToPlay() || USING_EARLYNESS
-					&& time >= sound.getTimeToPlay() - Math.pow(sound.getMaximumBase(), EARLYNESS_THRESHOLD_POW)) {
-				if (ModLog.DEBUGGING && USING_EARLYNESS && time < sound.getTimeToPlay()) {
-					ModLog.debug("    Playing early sound (early by " + (sound.getTimeToPlay() - time)
-							+ "ms, tolerence is " + Math.pow(sound.getMaximumBase(), EARLYNESS_THRESHOLD_POW));
-				}
-
-				final long lateness = time - sound.getTimeToPlay();
-				if (!USING_LATENESS || sound.getMaximumBase() < 0
-						|| lateness <= sound.getMaximumBase() / LATENESS_THRESHOLD_DIVIDER) {
-					sound.playSound(this);
-				} else {
-					if (ModLog.DEBUGGING)
-						ModLog.debug("    Skipped late sound (late by " + lateness + "ms, tolerence is "
-								+ sound.getMaximumBase() / LATENESS_THRESHOLD_DIVIDER + "ms)");
-				}
-				iter.remove();
-			} else {
-				newMinimum = sound.getTimeToPlay();
-			}
+		if (ModLog.DEBUGGING && USING_EARLYNESS && time < sound.getTimeToPlay()) {
+			ModLog.debug("    Playing early sound (early by " + (sound.getTimeToPlay() - time) + "ms, tolerence is "
+					+ Math.pow(sound.getMaximumBase(), EARLYNESS_THRESHOLD_POW));
 		}
 
-		this.minimum = newMinimum;
+		final long lateness = time - sound.getTimeToPlay();
+		if (!USING_LATENESS || sound.getMaximumBase() < 0
+				|| lateness <= sound.getMaximumBase() / LATENESS_THRESHOLD_DIVIDER) {
+			sound.playSound(this);
+		} else {
+			if (ModLog.DEBUGGING)
+				ModLog.debug("    Skipped late sound (late by " + lateness + "ms, tolerence is "
+						+ sound.getMaximumBase() / LATENESS_THRESHOLD_DIVIDER + "ms)");
+		}
 	}
 
 	@Override
@@ -26,12 +26,15 @@ package org.blockartistry.mod.DynSurround.client.footsteps.mcpackage.implem;
 
 import org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces.IOptions;
 import org.blockartistry.mod.DynSurround.client.footsteps.engine.interfaces.ISoundPlayer;
+import org.blockartistry.mod.DynSurround.client.sound.SoundScheduler;
+import org.blockartistry.mod.DynSurround.util.TimerWheel;
 
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 
 @SideOnly(Side.CLIENT)
-public class PendingSound {
+public class PendingSound extends TimerWheel.Timer {
+	private final AcousticsManager manager;
 	private final Object location;
 	private final String soundName;
 	private final float volume;
@@ -40,8 +43,10 @@ public class PendingSound {
 	private final long timeToPlay;
 	private final long maximum;
 
-	public PendingSound(final Object location, final String soundName, final float volume, final float pitch,
-			final IOptions options, final long timeToPlay, final long maximum) {
+	public PendingSound(final AcousticsManager manager, final Object location, final String soundName,
+			final float volume, final float pitch, final IOptions options, final long timeToPlay, final long maximum) {
+		super(SoundScheduler.FOOTSTEPS);
+		this.manager = manager;
 		this.location = location;
 		this.soundName = soundName;
 		this.volume = volume;
@@ -52,6 +57,11 @@ public class PendingSound {
 		this.maximum = maximum;
 	}
 
+	@Override
+	protected void expire() {
+		this.manager.expire(this);
+	}
+
 	/**
 	 * Play the sound stored in this pending sound.
 	 */
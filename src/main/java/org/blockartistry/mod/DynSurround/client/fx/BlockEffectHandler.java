@@ -29,16 +29,22 @@ import java.util.Random;
 
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.ColumnCache;
 import org.blockartistry.mod.DynSurround.client.IClientEffectHandler;
+import org.blockartistry.mod.DynSurround.client.IColumnListener;
 import org.blockartistry.mod.DynSurround.client.sound.SoundEffect;
 import org.blockartistry.mod.DynSurround.compat.BlockPos;
 import org.blockartistry.mod.DynSurround.compat.MCHelper;
 import org.blockartistry.mod.DynSurround.data.BlockRegistry;
-import org.blockartistry.mod.DynSurround.util.random.LCGRandom;
+import org.blockartistry.mod.DynSurround.data.Conditions;
+import org.blockartistry.mod.DynSurround.event.DiagnosticEvent;
+import org.blockartistry.mod.DynSurround.event.RegistryReloadEvent;
 import org.blockartistry.mod.DynSurround.util.random.XorShiftRandom;
 
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
+import gnu.trove.set.hash.TLongHashSet;
 import net.minecraft.block.Block;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
@@ -49,14 +55,105 @@ import net.minecraft.world.World;
  * Based on doVoidParticles().
  */
 @SideOnly(Side.CLIENT)
-public class BlockEffectHandler implements IClientEffectHandler {
+public class BlockEffectHandler implements IClientEffectHandler, IColumnListener {
 
 	private static final Random random = new XorShiftRandom();
-	private static final LCGRandom lcg = new LCGRandom();
 	private static final double RATIO = 0.0335671847202175D;
 
-	private static int randomRange(final int range) {
-		return lcg.nextInt(range) - lcg.nextInt(range);
+	private static final int PURGE_INTERVAL = 100;
+
+	private int lastPurge;
+	private long probes;
+	private long candidates;
+
+	private String patternName;
+	private ScanPattern pattern;
+
+	// With debug logging on the pattern in use is run against another one
+	// over the time it takes to probe the whole cube once: how many block
+	// effects and sounds each finds per probe, and how many different
+	// blocks with effects it reaches. The other pattern only checks the
+	// triggers and never runs an effect.
+	private ScanPattern benchPattern;
+	private final TLongHashSet benchFound = new TLongHashSet();
+	private final TLongHashSet benchOtherFound = new TLongHashSet();
+	private long benchEffects;
+	private long benchOtherEffects;
+	private int benchStart;
+	private long benchProbes;
+	private String benchResult = "no results yet";
+
+	public BlockEffectHandler() {
+		ColumnCache.addListener(this);
+	}
+
+	private void updatePattern(final int range) {
+		if (!ModOptions.specialEffectScanPattern.equals(this.patternName)) {
+			this.patternName = ModOptions.specialEffectScanPattern;
+			this.pattern = ScanPattern.create(this.patternName);
+			this.benchPattern = ScanPattern
+					.create(ScanPattern.RANDOM.equals(this.pattern.getName()) ? ScanPattern.SEQUENCE : ScanPattern.RANDOM);
+			resetBenchmark(EnvironState.getTickCounter());
+		}
+		this.pattern.setRange(range);
+	}
+
+	private void resetBenchmark(final int tick) {
+		this.benchFound.clear();
+		this.benchOtherFound.clear();
+		this.benchEffects = 0;
+		this.benchOtherEffects = 0;
+		this.benchStart = tick;
+		this.benchProbes = 0;
+	}
+
+	// Effects and sounds that would fire for the block at the position
+	private static int countEffects(final World world, final int x, final int y, final int z,
+			final Conditions conditions) {
+		final int id = BlockEffectIndex.getBlockId(x, y, z);
+		if (id == 0)
+			return 0;
+		final BlockPos pos = new BlockPos(x, y, z);
+		final Block block = Block.getBlockById(id);
+		int count = 0;
+		final List<BlockEffect> chain = BlockRegistry.getEffects(id);
+		if (chain != null)
+			for (final BlockEffect effect : chain)
+				if (effect.trigger(block, world, pos, random))
+					count++;
+		if (BlockRegistry.getSound(id, random, conditions) != null)
+			count++;
+		return count;
+	}
+
+	private void benchmark(final World world, final Conditions conditions, final BlockPos origin, final int tick,
+			final int range, final int checkCount) {
+		if (this.benchProbes == 0)
+			this.benchStart = tick;
+		this.benchPattern.setRange(range);
+		for (int i = 0; i < checkCount; i++) {
+			this.benchPattern.next();
+			final int x = origin.getX() + this.benchPattern.x;
+			final int y = origin.getY() + this.benchPattern.y;
+			final int z = origin.getZ() + this.benchPattern.z;
+			if (BlockEffectIndex.isCandidate(x, y, z)) {
+				this.benchOtherFound.add(BlockPos.toLong(x, y, z));
+				this.benchOtherEffects += countEffects(world, x, y, z, conditions);
+			}
+		}
+		this.benchProbes += checkCount;
+
+		final int side = range * 2 - 1;
+		final int cycleTicks = (side * side * side + checkCount - 1) / checkCount;
+		final int elapsed = tick - this.benchStart;
+		if (elapsed >= cycleTicks) {
+			this.benchResult = String.format(
+					"%s %.4f effects/probe, %d blocks vs %s %.4f effects/probe, %d blocks over %d ticks",
+					this.pattern.getName(), (double) this.benchEffects / this.benchProbes, this.benchFound.size(),
+					this.benchPattern.getName(), (double) this.benchOtherEffects / this.benchProbes,
+					this.benchOtherFound.size(), elapsed);
+			resetBenchmark(tick);
+		}
 	}
 
 	@Override
@@ -65,27 +162,60 @@ public class BlockEffectHandler implements IClientEffectHandler {
 			return;
 
 		final BlockPos playerPos = new BlockPos(player);
-		final String conditions = EnvironState.getConditions();
+		final Conditions conditions = EnvironState.getConditions();
 		final int RANGE = ModOptions.specialEffectRange;
 		final int CHECK_COUNT = (int) (Math.pow(RANGE * 2 - 1, 3) * RATIO);
 
+		final int currentTick = EnvironState.getTickCounter();
+		updatePattern(RANGE);
+		JetRegistry.purge(world);
+		if (currentTick - this.lastPurge >= PURGE_INTERVAL) {
+			this.lastPurge = currentTick;
+			BlockEffectIndex.purge(playerPos.getX(), playerPos.getZ(), RANGE);
+		}
+		BlockEffectIndex.prepare(world, playerPos.getX(), playerPos.getY(), playerPos.getZ(), RANGE);
+
+		// Only positions the index says hold a block with effects or
+		// sounds go to the world.
+		final boolean bench = ModOptions.enableDebugLogging;
+		this.probes += CHECK_COUNT;
 		for (int i = 0; i < CHECK_COUNT; i++) {
-			final BlockPos pos = playerPos.add(randomRange(RANGE), randomRange(RANGE), randomRange(RANGE));
-			final Block block = MCHelper.getBlock(world, pos);
-			if (block != Blocks.air) {
-				final List<BlockEffect> chain = BlockRegistry.getEffects(block);
+			this.pattern.next();
+			final int x = playerPos.getX() + this.pattern.x;
+			final int y = playerPos.getY() + this.pattern.y;
+			final int z = playerPos.getZ() + this.pattern.z;
+			if (!BlockEffectIndex.isCandidate(x, y, z))
+				continue;
+
+			this.candidates++;
+			if (bench)
+				this.benchFound.add(BlockPos.toLong(x, y, z));
+			final int id = BlockEffectIndex.getBlockId(x, y, z);
+			if (id != 0) {
+				final BlockPos pos = new BlockPos(x, y, z);
+				final Block block = Block.getBlockById(id);
+				final List<BlockEffect> chain = BlockRegistry.getEffects(id);
 				if (chain != null) {
 					for (final BlockEffect effect : chain)
-						if (effect.trigger(block, world, pos, random))
+						if (effect.trigger(block, world, pos, random)) {
 							effect.doEffect(block, world, pos, random);
+							if (bench)
+								this.benchEffects++;
+						}
 				}
 
-				final SoundEffect sound = BlockRegistry.getSound(block, random, conditions);
-				if (sound != null)
+				final SoundEffect sound = BlockRegistry.getSound(id, random, conditions);
+				if (sound != null) {
 					sound.doEffect(block, world, pos, random);
+					if (bench)
+						this.benchEffects++;
+				}
 			}
 		}
 
+		if (bench)
+			benchmark(world, conditions, playerPos, currentTick, RANGE, CHECK_COUNT);
+
 		if (EnvironState.isPlayerOnGround() && EnvironState.isPlayerMoving()) {
 			final BlockPos pos = playerPos.down(2);
 			final Block block = MCHelper.getBlock(world, pos);
@@ -97,8 +227,47 @@ public class BlockEffectHandler implements IClientEffectHandler {
 		}
 	}
 
+	@SubscribeEvent
+	public void registryReload(final RegistryReloadEvent.Block event) {
+		BlockEffectIndex.invalidateAll();
+	}
+
+	@SubscribeEvent
+	public void diagnostics(final DiagnosticEvent.Gather event) {
+		event.output.add(String.format("Block Index: %d sections; %d scans; %d of %d probes looked up",
+				BlockEffectIndex.size(), BlockEffectIndex.getScanCount(), this.candidates, this.probes));
+		event.output.add(JetRegistry.diagnostic());
+		if (this.pattern != null) {
+			final int cycle = this.pattern.getCycleLength();
+			event.output.add(String.format("Scan Pattern: %s, %s", this.pattern.getName(),
+					cycle == 0 ? "no full cycle" : String.format("%d probes per full cycle", cycle)));
+			if (ModOptions.enableDebugLogging)
+				event.output.add("Scan Benchmark: " + this.benchResult);
+		}
+	}
+
 	@Override
 	public boolean hasEvents() {
-		return false;
+		return true;
+	}
+
+	@Override
+	public void onColumnsCleared() {
+		BlockEffectIndex.clear();
+	}
+
+	@Override
+	public void onColumnChanged(final int x, final int z) {
+	}
+
+	@Override
+	public void onBlockChanged(final int x, final int y, final int z) {
+		BlockEffectIndex.blockChanged(x, y, z);
+	}
+
+	@Override
+	public void onRegionChanged(final int x1, final int y1, final int z1, final int x2, final int y2,
+			final int z2) {
+		BlockEffectIndex.invalidate(x1, y1, z1, x2, y2, z2);
 	}
 }
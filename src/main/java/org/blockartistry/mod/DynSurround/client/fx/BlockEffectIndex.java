@@ -0,0 +1,305 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.fx;
+
+import org.blockartistry.mod.DynSurround.data.BlockRegistry;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/*
+ * Index of the blocks in the client world that have effects or sounds
+ * registered.  Each 16x16x16 chunk section gets a 4096 bit mask with a
+ * bit set for every such block; sections without any share a single
+ * empty mask.  Sections are scanned the first time the effect handler
+ * looks at them, straight from the block id arrays, and are kept current
+ * through the block change hooks in ColumnCache.  Sections well outside
+ * the effect range are dropped periodically.
+ *
+ * Before each pass the handler has the sections in range pulled into a
+ * window so that testing a position is an array read and a bit test
+ * rather than a trip through the chunk provider.
+ */
+@SideOnly(Side.CLIENT)
+public final class BlockEffectIndex {
+
+	private static final long[] NONE = new long[0];
+	private static final int MAX_BLOCK_ID = 4096;
+	private static final int PURGE_MARGIN = 2;
+	private static final int MAX_INVALIDATE_COLUMNS = 64;
+
+	private static final TLongObjectHashMap<long[]> sections = new TLongObjectHashMap<>();
+	private static boolean[] capable = new boolean[MAX_BLOCK_ID];
+	private static volatile boolean stale = true;
+	private static World cachedWorld;
+
+	// Sections in range of the last prepare(), along with the block
+	// storage of those that have candidates
+	private static long[][] window = new long[0][];
+	private static ExtendedBlockStorage[] storages = new ExtendedBlockStorage[0];
+	private static int baseX;
+	private static int baseY;
+	private static int baseZ;
+	private static int spanX;
+	private static int spanY;
+	private static int spanZ;
+
+	private static long scans;
+
+	private BlockEffectIndex() {
+
+	}
+
+	private static long key(final int cx, final int sy, final int cz) {
+		return ((cx & 0x3FFFFFFL) << 30) | ((cz & 0x3FFFFFFL) << 4) | (sy & 0xF);
+	}
+
+	/*
+	 * Called when the block registry changes; the index is rebuilt the
+	 * next time it is used.
+	 */
+	public static void invalidateAll() {
+		stale = true;
+	}
+
+	public static void clear() {
+		sections.clear();
+		window = new long[0][];
+		storages = new ExtendedBlockStorage[0];
+		spanX = spanY = spanZ = 0;
+	}
+
+	private static void rebuildCapable() {
+		final boolean[] table = new boolean[MAX_BLOCK_ID];
+		for (final Block block : BlockRegistry.getEffectBlocks()) {
+			final int id = Block.getIdFromBlock(block);
+			if (id >= 0 && id < MAX_BLOCK_ID)
+				table[id] = true;
+		}
+		capable = table;
+	}
+
+	private static boolean isCapable(final Block block) {
+		final int id = Block.getIdFromBlock(block);
+		return id >= 0 && id < MAX_BLOCK_ID && capable[id];
+	}
+
+	private static long[] scan(final World world, final int cx, final int sy, final int cz) {
+		final long k = key(cx, sy, cz);
+		long[] bits = sections.get(k);
+		if (bits != null)
+			return bits;
+
+		// Chunks that haven't arrived yet are left out of the index
+		final Chunk chunk = world.getChunkFromChunkCoords(cx, cz);
+		if (chunk == null || chunk.isEmpty())
+			return NONE;
+
+		bits = NONE;
+		final ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sy];
+		if (storage != null && !storage.isEmpty()) {
+			final byte[] lsb = storage.getBlockLSBArray();
+			final NibbleArray msb = storage.getBlockMSBArray();
+			final boolean[] table = capable;
+			long[] mask = null;
+			for (int i = 0; i < 4096; i++) {
+				int id = lsb[i] & 0xFF;
+				if (msb != null)
+					id |= msb.get(i & 0xF, i >> 8, (i >> 4) & 0xF) << 8;
+				if (table[id]) {
+					if (mask == null)
+						mask = new long[64];
+					mask[i >> 6] |= 1L << i;
+				}
+			}
+			if (mask != null)
+				bits = mask;
+			scans++;
+		}
+
+		sections.put(k, bits);
+		return bits;
+	}
+
+	/*
+	 * Pulls the sections within range of the center into the window.
+	 */
+	public static void prepare(final World world, final int x, final int y, final int z, final int range) {
+		if (world != cachedWorld || stale) {
+			stale = false;
+			cachedWorld = world;
+			rebuildCapable();
+			clear();
+		}
+
+		baseX = (x - range) >> 4;
+		baseZ = (z - range) >> 4;
+		baseY = Math.max(0, (y - range) >> 4);
+		spanX = ((x + range) >> 4) - baseX + 1;
+		spanZ = ((z + range) >> 4) - baseZ + 1;
+		spanY = Math.min(15, (y + range) >> 4) - baseY + 1;
+		if (spanY <= 0) {
+			spanX = spanY = spanZ = 0;
+			return;
+		}
+
+		final int size = spanX * spanY * spanZ;
+		if (window.length < size) {
+			window = new long[size][];
+			storages = new ExtendedBlockStorage[size];
+		}
+
+		int idx = 0;
+		for (int cx = 0; cx < spanX; cx++)
+			for (int cz = 0; cz < spanZ; cz++) {
+				Chunk chunk = null;
+				for (int sy = 0; sy < spanY; sy++) {
+					final long[] bits = scan(world, baseX + cx, baseY + sy, baseZ + cz);
+					ExtendedBlockStorage storage = null;
+					if (bits != NONE) {
+						if (chunk == null)
+							chunk = world.getChunkFromChunkCoords(baseX + cx, baseZ + cz);
+						if (chunk != null)
+							storage = chunk.getBlockStorageArray()[baseY + sy];
+					}
+					window[idx] = bits;
+					storages[idx++] = storage;
+				}
+			}
+	}
+
+	/*
+	 * Whether the block at the position has registered effects or sounds.
+	 * Only valid for positions within the range given to prepare().
+	 */
+	public static boolean isCandidate(final int x, final int y, final int z) {
+		final int cx = (x >> 4) - baseX;
+		final int cz = (z >> 4) - baseZ;
+		final int sy = (y >> 4) - baseY;
+		if (y < 0 || cx < 0 || cx >= spanX || cz < 0 || cz >= spanZ || sy < 0 || sy >= spanY)
+			return false;
+		final long[] bits = window[(cx * spanZ + cz) * spanY + sy];
+		if (bits == NONE)
+			return false;
+		final int i = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+		return (bits[i >> 6] & (1L << i)) != 0;
+	}
+
+	/*
+	 * Id of the block at a position that isCandidate() accepted, read
+	 * from the section's block arrays. 0 (air) if there is nothing there.
+	 */
+	public static int getBlockId(final int x, final int y, final int z) {
+		final int cx = (x >> 4) - baseX;
+		final int cz = (z >> 4) - baseZ;
+		final int sy = (y >> 4) - baseY;
+		if (y < 0 || cx < 0 || cx >= spanX || cz < 0 || cz >= spanZ || sy < 0 || sy >= spanY)
+			return 0;
+		final ExtendedBlockStorage storage = storages[(cx * spanZ + cz) * spanY + sy];
+		if (storage == null)
+			return 0;
+		final int bx = x & 0xF;
+		final int by = y & 0xF;
+		final int bz = z & 0xF;
+		int id = storage.getBlockLSBArray()[(by << 8) | (bz << 4) | bx] & 0xFF;
+		final NibbleArray msb = storage.getBlockMSBArray();
+		if (msb != null)
+			id |= msb.get(bx, by, bz) << 8;
+		return id;
+	}
+
+	/*
+	 * A single block changed. Sections that have been scanned are patched
+	 * in place.
+	 */
+	public static void blockChanged(final int x, final int y, final int z) {
+		if (cachedWorld == null || y < 0 || y > 255)
+			return;
+		final long k = key(x >> 4, y >> 4, z >> 4);
+		long[] bits = sections.get(k);
+		if (bits == null)
+			return;
+
+		final int i = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+		if (isCapable(cachedWorld.getBlock(x, y, z))) {
+			if (bits == NONE) {
+				bits = new long[64];
+				sections.put(k, bits);
+			}
+			bits[i >> 6] |= 1L << i;
+		} else if (bits != NONE) {
+			bits[i >> 6] &= ~(1L << i);
+		}
+	}
+
+	/*
+	 * A range of blocks changed, such as when chunk data arrives. The
+	 * affected sections are scanned again when next needed.
+	 */
+	public static void invalidate(final int x1, final int y1, final int z1, final int x2, final int y2,
+			final int z2) {
+		final int cx1 = x1 >> 4;
+		final int cx2 = x2 >> 4;
+		final int cz1 = z1 >> 4;
+		final int cz2 = z2 >> 4;
+		if ((long) (cx2 - cx1 + 1) * (cz2 - cz1 + 1) > MAX_INVALIDATE_COLUMNS) {
+			clear();
+			return;
+		}
+		final int sy1 = Math.max(0, y1 >> 4);
+		final int sy2 = Math.min(15, y2 >> 4);
+		for (int cx = cx1; cx <= cx2; cx++)
+			for (int cz = cz1; cz <= cz2; cz++)
+				for (int sy = sy1; sy <= sy2; sy++)
+					sections.remove(key(cx, sy, cz));
+	}
+
+	/*
+	 * Drops sections that are well outside the range of the center.
+	 */
+	public static void purge(final int x, final int z, final int range) {
+		final int limit = (range >> 4) + PURGE_MARGIN;
+		final int px = x >> 4;
+		final int pz = z >> 4;
+		sections.retainEntries((k, v) -> {
+			final int cx = ((int) (k >> 30) << 6) >> 6;
+			final int cz = ((int) ((k >> 4) & 0x3FFFFFFL) << 6) >> 6;
+			return Math.abs(cx - px) <= limit && Math.abs(cz - pz) <= limit;
+		});
+	}
+
+	public static int size() {
+		return sections.size();
+	}
+
+	public static long getScanCount() {
+		return scans;
+	}
+}
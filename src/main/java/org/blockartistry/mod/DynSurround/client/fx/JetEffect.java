@@ -71,7 +71,19 @@ public abstract class JetEffect extends BlockEffect {
 		super(chance);
 	}
 
-	protected void addEffect(final EntityJetFX fx) {
+	protected abstract EntityJetFX createJet(final Block block, final World world, final BlockPos pos,
+			final Random random);
+
+	/*
+	 * Jets are only spawned where the registry has room for them. A jet
+	 * already running on the block is kept going instead.
+	 */
+	@Override
+	public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
+		if (!JetRegistry.canSpawn(pos))
+			return;
+		final EntityJetFX fx = createJet(block, world, pos, random);
+		JetRegistry.register(pos, fx);
 		Minecraft.getMinecraft().effectRenderer.addEffect(fx);
 		fx.playSound();
 	}
@@ -87,12 +99,10 @@ public abstract class JetEffect extends BlockEffect {
 		}
 
 		@Override
-		public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
+		protected EntityJetFX createJet(final Block block, final World world, final BlockPos pos, final Random random) {
 			final int lavaBlocks = countBlocks(world, pos, block, -1);
 			final double spawnHeight = jetSpawnHeight(world, pos);
-			final EntityJetFX effect = new EntityFireJetFX(lavaBlocks, world, pos.getX() + 0.5D, spawnHeight,
-					pos.getZ() + 0.5D);
-			addEffect(effect);
+			return new EntityFireJetFX(lavaBlocks, world, pos.getX() + 0.5D, spawnHeight, pos.getZ() + 0.5D);
 		}
 	}
 
@@ -108,11 +118,9 @@ public abstract class JetEffect extends BlockEffect {
 		}
 
 		@Override
-		public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
+		protected EntityJetFX createJet(final Block block, final World world, final BlockPos pos, final Random random) {
 			final int waterBlocks = countBlocks(world, pos, block, 1);
-			final EntityJetFX effect = new EntityBubbleJetFX(waterBlocks, world, pos.getX() + 0.5D, pos.getY() + 0.1D,
-					pos.getZ() + 0.5D);
-			addEffect(effect);
+			return new EntityBubbleJetFX(waterBlocks, world, pos.getX() + 0.5D, pos.getY() + 0.1D, pos.getZ() + 0.5D);
 		}
 	}
 
@@ -141,12 +149,10 @@ public abstract class JetEffect extends BlockEffect {
 		}
 
 		@Override
-		public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
+		protected EntityJetFX createJet(final Block block, final World world, final BlockPos pos, final Random random) {
 			final int strength = lavaCount(world, pos);
 			final double spawnHeight = jetSpawnHeight(world, pos);
-			final EntityJetFX effect = new EntitySteamJetFX(strength, world, pos.getX() + 0.5D, spawnHeight,
-					pos.getZ() + 0.5D);
-			addEffect(effect);
+			return new EntitySteamJetFX(strength, world, pos.getX() + 0.5D, spawnHeight, pos.getZ() + 0.5D);
 		}
 	}
 
@@ -162,10 +168,8 @@ public abstract class JetEffect extends BlockEffect {
 		}
 
 		@Override
-		public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
-			final EntityJetFX effect = new EntityDustJetFX(2, world, pos.getX() + 0.5D, pos.getY() - 0.2D,
-					pos.getZ() + 0.5D, block);
-			addEffect(effect);
+		protected EntityJetFX createJet(final Block block, final World world, final BlockPos pos, final Random random) {
+			return new EntityDustJetFX(2, world, pos.getX() + 0.5D, pos.getY() - 0.2D, pos.getZ() + 0.5D, block);
 		}
 	}
 
@@ -180,10 +184,8 @@ public abstract class JetEffect extends BlockEffect {
 		}
 
 		@Override
-		public void doEffect(final Block block, final World world, final BlockPos pos, final Random random) {
-			final EntityJetFX effect = new EntityFountainJetFX(5, world, pos.getX() + 0.5D, pos.getY() + 1.1D,
-					pos.getZ() + 0.5D, block);
-			addEffect(effect);
+		protected EntityJetFX createJet(final Block block, final World world, final BlockPos pos, final Random random) {
+			return new EntityFountainJetFX(5, world, pos.getX() + 0.5D, pos.getY() + 1.1D, pos.getZ() + 0.5D, block);
 		}
 
 	}
@@ -0,0 +1,117 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.fx;
+
+import org.blockartistry.mod.DynSurround.client.fx.particle.EntityJetFX;
+import org.blockartistry.mod.DynSurround.compat.BlockPos;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.minecraft.world.World;
+
+/*
+ * Tracks the jets that are alive in the client world by the block they
+ * were spawned from.  A block gets at most one jet; when a second one
+ * is wanted the live jet is kept going instead.  Jets are also capped
+ * per chunk and overall so that lava lakes and the Nether cannot grow
+ * the particle count without bound.
+ */
+@SideOnly(Side.CLIENT)
+public final class JetRegistry {
+
+	private static final int MAX_PER_CHUNK = 8;
+	private static final int MAX_TOTAL = 128;
+
+	private static final TLongObjectHashMap<EntityJetFX> jets = new TLongObjectHashMap<>();
+	private static final TLongIntHashMap chunks = new TLongIntHashMap();
+
+	private static int peak;
+	private static long refreshed;
+	private static long chunkRefused;
+	private static long totalRefused;
+
+	private JetRegistry() {
+
+	}
+
+	private static long chunkKey(final int x, final int z) {
+		return (long) (x >> 4) << 32 | ((z >> 4) & 0xFFFFFFFFL);
+	}
+
+	/*
+	 * Whether a new jet may be spawned at the position.  If one is
+	 * already there it is refreshed and the answer is no.
+	 */
+	public static boolean canSpawn(final BlockPos pos) {
+		final EntityJetFX jet = jets.get(BlockPos.toLong(pos.getX(), pos.getY(), pos.getZ()));
+		if (jet != null && jet.isActive(jet.worldObj.getTotalWorldTime())) {
+			jet.refresh();
+			refreshed++;
+			return false;
+		}
+		if (jets.size() >= MAX_TOTAL) {
+			totalRefused++;
+			return false;
+		}
+		if (chunks.get(chunkKey(pos.getX(), pos.getZ())) >= MAX_PER_CHUNK) {
+			chunkRefused++;
+			return false;
+		}
+		return true;
+	}
+
+	public static void register(final BlockPos pos, final EntityJetFX jet) {
+		final EntityJetFX old = jets.put(BlockPos.toLong(pos.getX(), pos.getY(), pos.getZ()), jet);
+		if (old == null) {
+			chunks.adjustOrPutValue(chunkKey(pos.getX(), pos.getZ()), 1, 1);
+			peak = Math.max(peak, jets.size());
+		}
+	}
+
+	/*
+	 * Drops jets that have died, been pushed out of the effect renderer,
+	 * or belong to some other world.
+	 */
+	public static void purge(final World world) {
+		if (jets.isEmpty())
+			return;
+		final long worldTime = world.getTotalWorldTime();
+		jets.retainEntries((k, jet) -> {
+			if (jet.worldObj == world && jet.isActive(worldTime))
+				return true;
+			final BlockPos pos = BlockPos.fromLong(k);
+			final long chunk = chunkKey(pos.getX(), pos.getZ());
+			if (chunks.adjustOrPutValue(chunk, -1, 0) <= 0)
+				chunks.remove(chunk);
+			return false;
+		});
+	}
+
+	public static String diagnostic() {
+		return String.format("Jets: %d active in %d chunks (peak %d); %d refreshed; %d refused by chunk cap, %d by total cap",
+				jets.size(), chunks.size(), peak, refreshed, chunkRefused, totalRefused);
+	}
+}
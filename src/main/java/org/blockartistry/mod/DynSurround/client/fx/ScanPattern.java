@@ -0,0 +1,277 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.fx;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.util.random.LCGRandom;
+import org.blockartistry.mod.DynSurround.util.random.XorShiftRandom;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+
+/*
+ * Order in which the block effect handler probes the cube around the
+ * player.  Each call to next() places the offset of the following probe
+ * in x, y and z; offsets run from -(range - 1) to range - 1 on each axis.
+ *
+ * The random pattern is the original sampler.  Taking the difference of
+ * two uniform numbers piles probes up around the player and leaves the
+ * outer shells thin, and nothing stops a block from going unvisited for
+ * a long time.  The other patterns walk a precomputed ordering of every
+ * block in the cube with a cursor, so each block is visited exactly once
+ * per cycle and coverage at the edge of the range is as good as at the
+ * center.
+ */
+@SideOnly(Side.CLIENT)
+public abstract class ScanPattern {
+
+	public static final String RANDOM = "random";
+	public static final String SEQUENCE = "sequence";
+	public static final String SHELL = "shell";
+
+	public int x;
+	public int y;
+	public int z;
+
+	protected int range;
+
+	public static ScanPattern create(final String name) {
+		if (RANDOM.equalsIgnoreCase(name))
+			return new Triangular();
+		if (SHELL.equalsIgnoreCase(name))
+			return new Shell();
+		if (!SEQUENCE.equalsIgnoreCase(name))
+			ModLog.warn("Unknown special effect scan pattern '%s'; using '%s'", name, SEQUENCE);
+		return new Sequence();
+	}
+
+	public void setRange(final int range) {
+		if (this.range != range) {
+			this.range = range;
+			build();
+		}
+	}
+
+	protected void build() {
+	}
+
+	public abstract String getName();
+
+	public abstract void next();
+
+	/*
+	 * Number of probes it takes to visit every block in the cube, or 0 if
+	 * the pattern makes no such promise.
+	 */
+	public int getCycleLength() {
+		return 0;
+	}
+
+	private static final class Triangular extends ScanPattern {
+
+		private final LCGRandom lcg = new LCGRandom();
+
+		@Override
+		public String getName() {
+			return RANDOM;
+		}
+
+		@Override
+		public void next() {
+			this.x = this.lcg.nextInt(this.range) - this.lcg.nextInt(this.range);
+			this.y = this.lcg.nextInt(this.range) - this.lcg.nextInt(this.range);
+			this.z = this.lcg.nextInt(this.range) - this.lcg.nextInt(this.range);
+		}
+	}
+
+	/*
+	 * Walks a table of every offset in the cube.  Offsets are packed one
+	 * byte per axis.
+	 */
+	private abstract static class Table extends ScanPattern {
+
+		private static final int BIAS = 128;
+
+		protected final Random random = new XorShiftRandom();
+		private int[] cells = new int[0];
+		private int cursor;
+
+		protected static int pack(final int dx, final int dy, final int dz) {
+			return (dx + BIAS) << 16 | (dy + BIAS) << 8 | (dz + BIAS);
+		}
+
+		protected void shuffle(final int[] a, final int start, final int end) {
+			for (int i = end - 1; i > start; i--) {
+				final int j = start + this.random.nextInt(i - start + 1);
+				final int t = a[i];
+				a[i] = a[j];
+				a[j] = t;
+			}
+		}
+
+		protected abstract int[] compute(final int range);
+
+		@Override
+		protected void build() {
+			this.cells = compute(this.range);
+			this.cursor = 0;
+		}
+
+		@Override
+		public void next() {
+			if (this.cursor == this.cells.length)
+				this.cursor = 0;
+			final int c = this.cells[this.cursor++];
+			this.x = (c >> 16) - BIAS;
+			this.y = ((c >> 8) & 0xFF) - BIAS;
+			this.z = (c & 0xFF) - BIAS;
+		}
+
+		@Override
+		public int getCycleLength() {
+			return this.cells.length;
+		}
+	}
+
+	/*
+	 * Orders the cube by the additive recurrence built on the generalized
+	 * golden ratio for three dimensions (the R3 sequence), keeping only the
+	 * first hit on each block.  Any part of a cycle spreads its probes
+	 * evenly over the whole cube.  Blocks the sequence has not reached
+	 * after a few passes worth of points are appended in random order.
+	 */
+	private static final class Sequence extends Table {
+
+		private static final double PHI = 1.2207440845705266D;
+		private static final double A1 = 1.0D / PHI;
+		private static final double A2 = 1.0D / (PHI * PHI);
+		private static final double A3 = 1.0D / (PHI * PHI * PHI);
+		private static final int PASSES = 4;
+
+		@Override
+		public String getName() {
+			return SEQUENCE;
+		}
+
+		@Override
+		protected int[] compute(final int range) {
+			final int span = range - 1;
+			final int side = span * 2 + 1;
+			final int n = side * side * side;
+			final int[] cells = new int[n];
+			final BitSet seen = new BitSet(n);
+
+			int count = 0;
+			double px = 0.5D, py = 0.5D, pz = 0.5D;
+			for (int i = 0; count < n && i < n * PASSES; i++) {
+				px += A1;
+				if (px >= 1.0D)
+					px -= 1.0D;
+				py += A2;
+				if (py >= 1.0D)
+					py -= 1.0D;
+				pz += A3;
+				if (pz >= 1.0D)
+					pz -= 1.0D;
+				final int cx = (int) (px * side);
+				final int cy = (int) (py * side);
+				final int cz = (int) (pz * side);
+				final int idx = (cx * side + cy) * side + cz;
+				if (!seen.get(idx)) {
+					seen.set(idx);
+					cells[count++] = pack(cx - span, cy - span, cz - span);
+				}
+			}
+
+			final int start = count;
+			for (int idx = seen.nextClearBit(0); idx < n; idx = seen.nextClearBit(idx + 1))
+				cells[count++] = pack(idx / (side * side) - span, (idx / side) % side - span, idx % side - span);
+			shuffle(cells, start, count);
+
+			return cells;
+		}
+	}
+
+	/*
+	 * Groups the cube into shells by distance from the player and shuffles
+	 * each shell.  The shells are then interleaved so that each one is
+	 * worked through at the same rate: a quarter of the way into a cycle a
+	 * quarter of every shell has been visited.
+	 */
+	private static final class Shell extends Table {
+
+		@Override
+		public String getName() {
+			return SHELL;
+		}
+
+		@Override
+		protected int[] compute(final int range) {
+			final int span = range - 1;
+			final int[][] shells = new int[range][];
+			final int[] fill = new int[range];
+			for (int d = 0; d < range; d++) {
+				final int outer = d * 2 + 1;
+				final int inner = d * 2 - 1;
+				shells[d] = new int[d == 0 ? 1 : outer * outer * outer - inner * inner * inner];
+			}
+
+			for (int dx = -span; dx <= span; dx++)
+				for (int dy = -span; dy <= span; dy++)
+					for (int dz = -span; dz <= span; dz++) {
+						final int d = Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz)));
+						shells[d][fill[d]++] = pack(dx, dy, dz);
+					}
+
+			int total = 0;
+			for (final int[] shell : shells) {
+				shuffle(shell, 0, shell.length);
+				total += shell.length;
+			}
+
+			// Each step takes from the shell that is furthest behind
+			final int[] cells = new int[total];
+			final int[] taken = new int[range];
+			for (int i = 0; i < total; i++) {
+				int best = -1;
+				double lowest = Double.MAX_VALUE;
+				for (int d = 0; d < range; d++) {
+					if (taken[d] == shells[d].length)
+						continue;
+					final double progress = (taken[d] + 0.5D) / shells[d].length;
+					if (progress < lowest) {
+						lowest = progress;
+						best = d;
+					}
+				}
+				cells[i] = shells[best][taken[best]++];
+			}
+
+			return cells;
+		}
+	}
+}
@@ -44,9 +44,11 @@ import net.minecraft.world.World;
 public abstract class EntityJetFX extends EntityFX {
 
 	protected static final Random RANDOM = XorShiftRandom.current();
+	private static final int STALE_TICKS = 20;
 
 	protected final int jetStrength;
 	protected final int updateFrequency;
+	protected long lastUpdate;
 
 	public EntityJetFX(final int strength, final World world, final double x, final double y, final double z) {
 		this(strength, world, x, y, z, 3);
@@ -59,7 +61,30 @@ public abstract class EntityJetFX extends EntityFX {
 		setAlphaF(0.0F);
 		this.jetStrength = strength;
 		this.updateFrequency = freq;
-		this.particleMaxAge = (RANDOM.nextInt(strength) + 2) * 20;
+		this.particleMaxAge = lifeSpan();
+		this.lastUpdate = world.getTotalWorldTime();
+	}
+
+	protected int lifeSpan() {
+		return (RANDOM.nextInt(this.jetStrength) + 2) * 20;
+	}
+
+	/*
+	 * Another jet was wanted on the same block.  Rather than adding a
+	 * second one this jet is kept going for as long as the new one would
+	 * have lasted.
+	 */
+	public void refresh() {
+		this.particleMaxAge = Math.max(this.particleMaxAge, this.particleAge + lifeSpan());
+	}
+
+	/*
+	 * The effect renderer can drop particles without killing them when
+	 * its lists are full, so a jet that has stopped being updated is
+	 * treated as gone.
+	 */
+	public boolean isActive(final long worldTime) {
+		return !this.isDead && worldTime - this.lastUpdate <= STALE_TICKS;
 	}
 
 	/*
@@ -86,6 +111,7 @@ public abstract class EntityJetFX extends EntityFX {
 	 */
 	@Override
 	public void onUpdate() {
+		this.lastUpdate = this.worldObj.getTotalWorldTime();
 
 		// Check to see if a particle needs to be generated
 		if (this.particleAge % this.updateFrequency == 0) {
@@ -0,0 +1,179 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.ModOptions;
+import org.blockartistry.mod.DynSurround.Module;
+import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.IClientEffectHandler;
+import org.blockartistry.mod.DynSurround.event.DiagnosticEvent;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.SoundPoolEntry;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.World;
+import net.minecraftforge.common.config.Configuration;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+
+/*
+ * Adjusts the split between normal and streaming channels to what the
+ * session actually uses.  Once a second the number of busy normal and
+ * streaming channels, the sounds that were dropped for want of a voice
+ * and the number of emitters are sampled into a rolling window.  When
+ * the player changes worlds the window is used to work out a new split
+ * of the channels the device offers: streaming gets what it was seen to
+ * need plus some headroom and normal gets the rest.  Taking a new split
+ * means restarting the sound system, which would cut off everything
+ * that is playing, so the split is saved to the config and used when
+ * the game next starts.  Small changes are not saved.
+ *
+ * Only active when channels are configured automatically.
+ */
+@SideOnly(Side.CLIENT)
+public class ChannelBalancer implements IClientEffectHandler {
+
+	private static final int SAMPLE_INTERVAL = 20;
+	private static final int WINDOW = 120;
+	private static final int MIN_SAMPLES = 30;
+	private static final int MIN_STREAMING = 4;
+	private static final int STREAMING_HEADROOM = 2;
+	private static final int REBALANCE_THRESHOLD = 4;
+
+	private final int[] normalBusy = new int[WINDOW];
+	private final int[] streamBusy = new int[WINDOW];
+	private final int[] emitters = new int[WINDOW];
+	private final int[] drops = new int[WINDOW];
+	private int samples;
+	private int index;
+	private int lastSample;
+	private long lastDrops;
+
+	public ChannelBalancer() {
+	}
+
+	private static long getDropCount() {
+		return VoiceAllocator.getSkipCount() + SoundManager.getAgedCount();
+	}
+
+	@Override
+	public void process(final World world, final EntityPlayer player) {
+		final int tick = EnvironState.getTickCounter();
+		if (tick - this.lastSample < SAMPLE_INTERVAL)
+			return;
+		this.lastSample = tick;
+
+		// The pool entry a sound was started from says whether it took a
+		// streaming channel. Music and records are not the only streamed
+		// sounds; the biome loops are as well.
+		final net.minecraft.client.audio.SoundManager manager = Minecraft.getMinecraft().getSoundHandler().sndManager;
+		int streaming = 0;
+		int total = 0;
+		for (final Object obj : manager.playingSounds.values()) {
+			total++;
+			final SoundPoolEntry entry = (SoundPoolEntry) manager.playingSoundPoolEntries.get(obj);
+			if (entry != null && entry.func_148648_d())
+				streaming++;
+		}
+
+		final long dropCount = getDropCount();
+		this.normalBusy[this.index] = total - streaming;
+		this.streamBusy[this.index] = streaming;
+		this.emitters[this.index] = SoundManager.getEmitterCount();
+		this.drops[this.index] = (int) (dropCount - this.lastDrops);
+		this.lastDrops = dropCount;
+		this.index = (this.index + 1) % WINDOW;
+		if (this.samples < WINDOW)
+			this.samples++;
+	}
+
+	private static int peak(final int[] data, final int count) {
+		int result = 0;
+		for (int i = 0; i < count; i++)
+			if (data[i] > result)
+				result = data[i];
+		return result;
+	}
+
+	private static int sum(final int[] data, final int count) {
+		int result = 0;
+		for (int i = 0; i < count; i++)
+			result += data[i];
+		return result;
+	}
+
+	private void rebalance() {
+		final int available = SoundManager.getDeviceChannelCount();
+		if (available <= 0 || this.samples < MIN_SAMPLES)
+			return;
+
+		final int peakNormal = peak(this.normalBusy, this.samples);
+		final int peakStreaming = peak(this.streamBusy, this.samples);
+		final int peakEmitters = peak(this.emitters, this.samples);
+		final int dropped = sum(this.drops, this.samples);
+
+		int streaming = Math.max(peakStreaming + STREAMING_HEADROOM, MIN_STREAMING);
+		streaming = Math.min(streaming, available / 3);
+		final int normal = available - streaming;
+
+		// Compare with what the next start would use
+		final int current = ModOptions.learnedStreamingChannels > 0 ? ModOptions.learnedStreamingChannels
+				: SoundManager.getStreamingChannelCount();
+		final String stats = String.format("peak normal %d, peak streaming %d, emitters %d, dropped %d over %ds",
+				peakNormal, peakStreaming, peakEmitters, dropped, this.samples * SAMPLE_INTERVAL / 20);
+
+		if (Math.abs(streaming - current) < REBALANCE_THRESHOLD) {
+			ModLog.info("Sound channels: keeping %d streaming (%s)", current, stats);
+			return;
+		}
+
+		ModLog.info("Sound channels: %d normal, %d streaming will be used at the next start; was %d streaming (%s)",
+				normal, streaming, current, stats);
+		ModOptions.learnedStreamingChannels = streaming;
+		final Configuration config = Module.config();
+		config.get(ModOptions.CATEGORY_SOUND, ModOptions.CONFIG_LEARNED_STREAMING_CHANNELS, 0).set(streaming);
+		config.save();
+	}
+
+	@SubscribeEvent
+	public void playerJoinWorldEvent(final EntityJoinWorldEvent event) {
+		if (event.entity.worldObj.isRemote && EnvironState.isPlayer(event.entity))
+			rebalance();
+	}
+
+	@SubscribeEvent
+	public void diagnostics(final DiagnosticEvent.Gather event) {
+		event.output.add(String.format("Channels: %d normal, %d streaming of %d; window %d/%d",
+				SoundManager.getNormalChannelCount(), SoundManager.getStreamingChannelCount(),
+				SoundManager.getDeviceChannelCount(), this.samples, WINDOW));
+	}
+
+	@Override
+	public boolean hasEvents() {
+		return true;
+	}
+}
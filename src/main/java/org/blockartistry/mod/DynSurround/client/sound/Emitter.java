@@ -47,9 +47,14 @@ class Emitter {
 	protected PlayerSound activeSound;
 
 	protected int repeatDelay = 0;
+	protected float volume;
+
+	// Reconciliation pass that last asked for this emitter
+	int pass;
 
 	public Emitter(final SoundEffect sound) {
 		this.effect = sound;
+		this.volume = sound.getVolume();
 	}
 
 	public void update() {
@@ -61,7 +66,8 @@ class Emitter {
 
 		if (this.activeSound == null) {
 			this.activeSound = new PlayerSound(this.effect);
-		} else if (SoundManager.isSoundPlaying(this.activeSound)) {
+			this.activeSound.setVolume(this.volume);
+		} else if (this.activeSound.isActive()) {
 			return;
 		}
 
@@ -72,9 +78,13 @@ class Emitter {
 		}
 	}
 
-	public void setVolume(final float volume) {
+	public boolean setVolume(final float volume) {
+		if (this.volume == volume)
+			return false;
+		this.volume = volume;
 		if (this.activeSound != null)
 			this.activeSound.setVolume(volume);
+		return true;
 	}
 
 	public float getVolume() {
@@ -50,6 +50,7 @@ class PlayerSound extends MovingSound {
 	private float maxVolume;
 	private boolean isDonePlaying;
 	private long lastTick;
+	private boolean isActive;
 
 	public PlayerSound(final SoundEffect sound) {
 		super(new ResourceLocation(sound.sound));
@@ -86,6 +87,15 @@ class PlayerSound extends MovingSound {
 		return this.isDonePlaying;
 	}
 
+	// Maintained by the SoundManager lifecycle hooks
+	public boolean isActive() {
+		return this.isActive;
+	}
+
+	void setActive(final boolean flag) {
+		this.isActive = flag;
+	}
+
 	public boolean sameSound(final SoundEffect snd) {
 		return this.sound.equals(snd);
 	}
@@ -0,0 +1,151 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.audio.ISound;
+import paulscode.sound.SoundSystem;
+
+/*
+ * Funnels work for the vanilla SoundManager onto the client thread.
+ * Plays and stops that arrive from other threads are put on a lock-free
+ * queue rather than touching the manager's maps, and are run at the
+ * start of the next sound update.  Once per tick, after those have been
+ * run, the paulscode command queue is flushed so that every play, stop
+ * and volume change made during the tick is handed to the sound library
+ * in one batch.  The flush runs the library commands synchronously on
+ * the client thread; they are not handed to the library's own thread.
+ *
+ * This replaces marking every public SoundManager method synchronized
+ * and flushing the command queue after each individual play.
+ */
+@SideOnly(Side.CLIENT)
+public final class SoundCommandQueue {
+
+	private static final int STATS_INTERVAL = 20;
+
+	private static final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+	// The thread that runs the sound update; learned on the first update
+	private static volatile Thread owner;
+
+	// Calls made from other threads; each of these used to contend with
+	// the client thread for the SoundManager monitor.
+	private static final AtomicInteger deferred = new AtomicInteger();
+	private static final AtomicInteger batch = new AtomicInteger();
+	private static int calls;
+	private static int flushes;
+	private static int peakBatch;
+	private static int statsTick;
+	private static String stats = "";
+
+	private SoundCommandQueue() {
+
+	}
+
+	private static boolean isOffThread() {
+		final Thread t = owner;
+		return t != null && t != Thread.currentThread();
+	}
+
+	// Commands replayed by drain() run on the owner thread and so go
+	// straight through; each call is counted once, when it runs.
+	private static boolean defer(final Runnable command) {
+		if (!isOffThread()) {
+			calls++;
+			batch.incrementAndGet();
+			return false;
+		}
+		commands.add(command);
+		deferred.incrementAndGet();
+		return true;
+	}
+
+	// Mixin hook for SoundManager::playSound. Returns true if the call
+	// has been queued and the caller should not proceed.
+	public static boolean deferPlay(final net.minecraft.client.audio.SoundManager manager, final ISound sound) {
+		return defer(() -> manager.playSound(sound));
+	}
+
+	// Mixin hook for SoundManager::stopSound
+	public static boolean deferStop(final net.minecraft.client.audio.SoundManager manager, final ISound sound) {
+		return defer(() -> manager.stopSound(sound));
+	}
+
+	// Mixin hook for the head of SoundManager::updateAllSounds
+	public static void drain(final net.minecraft.client.audio.SoundManager manager) {
+		owner = Thread.currentThread();
+
+		Runnable command;
+		while ((command = commands.poll()) != null) {
+			try {
+				command.run();
+			} catch (final Throwable t) {
+				ModLog.error("Unable to run deferred sound command", t);
+			}
+		}
+
+		// Run everything queued up for the library since the last update.
+		// This executes the library commands here on the client thread,
+		// so the play state is current before the manager checks it.
+		if (manager.loaded && manager.sndSystem != null) {
+			((SoundSystem) manager.sndSystem).CommandQueue(null);
+			flushes++;
+			final int size = batch.getAndSet(0);
+			if (size > peakBatch)
+				peakBatch = size;
+		}
+
+		rollStats();
+	}
+
+	private static void rollStats() {
+		final int tick = EnvironState.getTickCounter();
+		if (tick - statsTick < STATS_INTERVAL)
+			return;
+		final float seconds = (tick - statsTick) / 20.0F;
+		final int offThread = deferred.getAndSet(0);
+		final int total = calls;
+		stats = String.format(
+				"Sound Commands: %.1f calls/s; %.1f deferred/s; %.1f flushes/s (%.1f/s avoided); peak batch %d",
+				total / seconds, offThread / seconds, flushes / seconds, Math.max(total - flushes, 0) / seconds,
+				peakBatch);
+		calls = 0;
+		flushes = 0;
+		peakBatch = 0;
+		statsTick = tick;
+	}
+
+	public static String diagnostic() {
+		return stats;
+	}
+}
@@ -24,10 +24,11 @@
 package org.blockartistry.mod.DynSurround.client.sound;
 
 import java.util.Random;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.blockartistry.mod.DynSurround.compat.BlockPos;
+import org.blockartistry.mod.DynSurround.data.ConditionMatcher;
+import org.blockartistry.mod.DynSurround.data.Conditions;
 import org.blockartistry.mod.DynSurround.data.config.SoundConfig;
 
 import net.minecraft.block.Block;
@@ -55,7 +56,7 @@ public final class SoundEffect {
 
 	public final String sound;
 	public final String conditions;
-	private final Pattern pattern;
+	private final ConditionMatcher matcher;
 	public final SoundType type;
 	public float volume;
 	public final float pitch;
@@ -82,7 +83,7 @@ public final class SoundEffect {
 		this.volume = volume;
 		this.pitch = pitch;
 		this.conditions = ".*";
-		this.pattern = null;
+		this.matcher = ConditionMatcher.ALWAYS;
 		this.weight = 1;
 		this.type = SoundType.SPOT;
 		this.variable = variable;
@@ -95,7 +96,7 @@ public final class SoundEffect {
 		this.volume = effect.volume;
 		this.pitch = effect.pitch;
 		this.conditions = effect.conditions;
-		this.pattern = effect.pattern;
+		this.matcher = effect.matcher;
 		this.weight = effect.weight;
 		this.type = effect.type;
 		this.variable = effect.variable;
@@ -108,7 +109,7 @@ public final class SoundEffect {
 		this.conditions = StringUtils.isEmpty(record.conditions) ? ".*" : record.conditions;
 		this.volume = record.volume == null ? 1.0F : record.volume;
 		this.pitch = record.pitch == null ? 1.0F : record.pitch;
-		this.pattern = Pattern.compile(this.conditions);
+		this.matcher = ConditionMatcher.compile(this.conditions);
 		this.weight = record.weight == null ? 10 : record.weight;
 		this.variable = record.variable != null && record.variable;
 		this.repeatDelayRandom = record.repeatDelayRandom == null ? 0 : record.repeatDelayRandom;
@@ -128,8 +129,8 @@ public final class SoundEffect {
 		}
 	}
 
-	public boolean matches(final String conditions) {
-		return this.pattern.matcher(conditions).matches();
+	public boolean matches(final Conditions conditions) {
+		return this.matcher.matches(conditions);
 	}
 
 	public float getVolume() {
@@ -26,6 +26,7 @@ package org.blockartistry.mod.DynSurround.client.sound;
 
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -36,8 +37,9 @@ import javax.annotation.Nonnull;
 import org.blockartistry.mod.DynSurround.ModLog;
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.SoundInterceptHandler;
 import org.blockartistry.mod.DynSurround.compat.BlockPos;
-import org.blockartistry.mod.DynSurround.data.SoundRegistry;
+import org.blockartistry.mod.DynSurround.util.TimerWheel;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.openal.AL;
 import org.lwjgl.openal.ALC10;
@@ -53,68 +55,120 @@ import net.minecraft.client.audio.SoundPoolEntry;
 import net.minecraft.client.settings.GameSettings;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.MathHelper;
-import paulscode.sound.SoundSystem;
+import net.minecraft.util.ResourceLocation;
 import paulscode.sound.SoundSystemConfig;
 
 @SideOnly(Side.CLIENT)
 public class SoundManager {
 
 	private static final int AGE_THRESHOLD_TICKS = 5;
-	private static final int SOUND_QUEUE_SLACK = 6;
 	private static final Map<SoundEffect, Emitter> emitters = new HashMap<>();
-	private static final List<SpotSound> pending = new ArrayList<>();
+
+	/*
+	 * A spot sound waiting on the scheduler, either because it was
+	 * delayed or because no voice was available when it was asked for.
+	 */
+	private static final class PendingSound extends TimerWheel.Timer {
+
+		private final SpotSound sound;
+
+		PendingSound(final SpotSound sound) {
+			super(SoundScheduler.SOUNDS);
+			this.sound = sound;
+		}
+
+		@Override
+		protected void expire() {
+			if (this.sound.getTickAge() >= AGE_THRESHOLD_TICKS) {
+				agedCount++;
+				ModLog.debug("AGING: " + this.sound);
+			} else if (this.sound.getTickAge() >= 0 && (canFitSound() || VoiceAllocator.canPreempt(this.sound))) {
+				playSound(this.sound);
+			} else {
+				SoundScheduler.scheduleTicks(this, 1);
+			}
+		}
+	}
 
 	private static int normalChannelCount = 0;
 	private static int streamChannelCount = 0;
+	private static int deviceChannelCount = -1;
+	private static long agedCount = 0;
 
 	public static void clearSounds() {
 		for (final Emitter emit : emitters.values())
 			emit.fade();
 		emitters.clear();
-		pending.clear();
+		SoundScheduler.cancel(SoundScheduler.SOUNDS);
+		ambientSounds = null;
+		VoiceAllocator.clear();
 	}
 
-	public static void queueAmbientSounds(final List<SoundEffect> sounds) {
-		// Need to remove sounds that are active but not
-		// in the incoming list
-		final List<SoundEffect> active = new ArrayList<>(emitters.keySet());
-		for (final SoundEffect effect : active) {
-			if (!sounds.contains(effect))
-				emitters.remove(effect).fade();
-			else {
-				final Emitter emitter = emitters.get(effect);
-				SoundEffect incoming = null;
-				for (final SoundEffect sound : sounds)
-					if (sound.equals(effect)) {
-						incoming = sound;
-						break;
-					}
-				emitter.setVolume(incoming.getVolume());
-				sounds.remove(effect);
+	// The last ambient list that was reconciled. Callers hand back
+	// the same list instance as long as nothing has changed.
+	private static List<SoundEffect> ambientSounds = null;
+	private static int ambientPass = 0;
+
+	/*
+	 * Reconciles the active emitters with the desired set of ambient
+	 * sounds. The list is not modified and must not be modified by
+	 * the caller after it has been queued.
+	 */
+	public static void queueAmbientSounds(@Nonnull final List<SoundEffect> sounds) {
+		if (sounds == ambientSounds)
+			return;
+
+		ambientSounds = sounds;
+		final int pass = ++ambientPass;
+		int marked = 0;
+
+		// Stamp the emitters that are still wanted, adding those
+		// that are not active and adjusting the volume of the rest.
+		for (int i = 0; i < sounds.size(); i++) {
+			final SoundEffect sound = sounds.get(i);
+			Emitter emitter = emitters.get(sound);
+			if (emitter == null) {
+				if (ModOptions.enableDebugLogging)
+					ModLog.debug("EMITTER ADD: " + sound);
+				emitter = new Emitter(sound);
+				emitters.put(sound, emitter);
+			} else if (emitter.pass == pass) {
+				continue;
+			} else if (emitter.setVolume(sound.getVolume()) && ModOptions.enableDebugLogging) {
+				ModLog.debug("EMITTER VOLUME: " + sound);
 			}
+			emitter.pass = pass;
+			marked++;
 		}
 
-		// Add sounds from the incoming list that are not
-		// active.
-		for (final SoundEffect sound : sounds)
-			emitters.put(sound, new Emitter(sound));
+		// Anything not stamped is no longer wanted
+		if (marked != emitters.size()) {
+			final Iterator<Emitter> itr = emitters.values().iterator();
+			while (itr.hasNext()) {
+				final Emitter emitter = itr.next();
+				if (emitter.pass != pass) {
+					if (ModOptions.enableDebugLogging)
+						ModLog.debug("EMITTER REMOVE: " + emitter.effect);
+					itr.remove();
+					emitter.fade();
+				}
+			}
+		}
 	}
 
 	public static void update() {
 		for (final Emitter emitter : emitters.values())
 			emitter.update();
 
-		final Iterator<SpotSound> pitr = pending.iterator();
-		while (pitr.hasNext()) {
-			final SpotSound sound = pitr.next();
-			if (sound.getTickAge() >= AGE_THRESHOLD_TICKS) {
-				ModLog.debug("AGING: " + sound);
-				pitr.remove();
-			} else if (sound.getTickAge() >= 0 && canFitSound()) {
-				playSound(sound);
-				pitr.remove();
-			}
-		}
+		SoundScheduler.advance();
+	}
+
+	public static int getEmitterCount() {
+		return emitters.size();
+	}
+
+	public static long getAgedCount() {
+		return agedCount;
 	}
 
 	public static int currentSoundCount() {
@@ -126,13 +180,7 @@ public class SoundManager {
 	}
 
 	private static boolean canFitSound() {
-		return currentSoundCount() < (SoundSystemConfig.getNumberNormalChannels() - SOUND_QUEUE_SLACK);
-	}
-
-	// Mixin hook for SoundManager::playSound
-	public static void flushSound() {
-		final SoundHandler h = Minecraft.getMinecraft().getSoundHandler();
-		((SoundSystem) h.sndManager.sndSystem).CommandQueue(null);
+		return VoiceAllocator.hasFreeVoice();
 	}
 
 	static void playSound(final ISound sound) {
@@ -156,8 +204,8 @@ public class SoundManager {
 
 		final SpotSound s = new SpotSound(player, sound);
 
-		if (!canFitSound())
-			pending.add(s);
+		if (!canFitSound() && !VoiceAllocator.canPreempt(s))
+			SoundScheduler.scheduleTicks(new PendingSound(s), 1);
 		else
 			playSound(s);
 	}
@@ -168,32 +216,86 @@ public class SoundManager {
 
 		final SpotSound s = new SpotSound(pos, sound, tickDelay);
 
-		if (tickDelay > 0 || !canFitSound())
-			pending.add(s);
+		if (tickDelay > 0)
+			SoundScheduler.scheduleTicks(new PendingSound(s), tickDelay);
+		else if (!canFitSound() && !VoiceAllocator.canPreempt(s))
+			SoundScheduler.scheduleTicks(new PendingSound(s), 1);
 		else
 			playSound(s);
 	}
 
-	public static boolean isSoundPlaying(@Nonnull final ISound sound) {
-		final net.minecraft.client.audio.SoundManager manager = Minecraft.getMinecraft().getSoundHandler().sndManager;
-		return manager.isSoundPlaying(sound) || manager.playingSounds.containsValue(sound)
-				|| manager.delayedSounds.containsKey(sound);
+	// Emitter sounds that are in the sound system, keyed by source name
+	private static final Map<String, PlayerSound> active = new HashMap<>();
+
+	// Mixin hook for SoundManager::playSound. The sound only has a
+	// source if the sound manager actually decided to play it.
+	public static void onSoundStarted(final ISound sound) {
+		final String source = Minecraft.getMinecraft().getSoundHandler().sndManager.invPlayingSounds.get(sound);
+		if (source == null)
+			return;
+		VoiceAllocator.onSoundStarted(sound);
+		if (sound instanceof PlayerSound ps) {
+			active.put(source, ps);
+			ps.setActive(true);
+		}
+	}
+
+	// Mixin hook for SoundManager::updateAllSounds when a finished
+	// source is released
+	public static void onSoundRemoved(final String source) {
+		final PlayerSound ps = active.remove(source);
+		if (ps != null)
+			ps.setActive(false);
+	}
+
+	// Mixin hook for SoundManager::stopAllSounds
+	public static void onAllSoundsStopped() {
+		for (final PlayerSound ps : active.values())
+			ps.setActive(false);
+		active.clear();
 	}
 
 	public static List<String> getSounds() {
 		final List<String> result = new ArrayList<>();
 		for (final SoundEffect effect : emitters.keySet())
 			result.add("EMITTER: " + effect.toString() + "[vol:" + emitters.get(effect).getVolume() + "]");
-		for (final SpotSound effect : pending)
+		SoundScheduler.getWheel().forEach(SoundScheduler.SOUNDS, timer -> {
+			final SpotSound effect = ((PendingSound) timer).sound;
 			result.add((effect.getTickAge() < 0 ? "DELAYED: " : "PENDING: ") + effect.getSoundEffect().toString());
+		});
 		return result;
 	}
 
+	// Player volume setting per category, negative if not yet read
+	private static final float[] categoryGains = new float[SoundCategory.values().length];
+
+	static {
+		Arrays.fill(categoryGains, -1.0F);
+	}
+
 	private static float getVolume(@Nonnull final SoundCategory category) {
+		final float gain = categoryGains[category.ordinal()];
+		if (gain >= 0.0F)
+			return gain;
+
 		final GameSettings settings = Minecraft.getMinecraft().gameSettings;
-		return settings != null && category != SoundCategory.MASTER
-				? settings.getSoundLevel(category)
-				: 1.0F;
+		if (settings == null)
+			return 1.0F;
+		final float level = category != SoundCategory.MASTER ? settings.getSoundLevel(category) : 1.0F;
+		categoryGains[category.ordinal()] = level;
+		return level;
+	}
+
+	// Mixin hook for SoundManager::setSoundCategoryVolume. The manager
+	// is told before GameSettings stores the new level, so take the
+	// value from the call.
+	public static void setCategoryVolume(@Nonnull final SoundCategory category, final float volume) {
+		if (category != SoundCategory.MASTER)
+			categoryGains[category.ordinal()] = volume;
+	}
+
+	public static void invalidateCategoryVolumes() {
+		Arrays.fill(categoryGains, -1.0F);
 	}
 
 	// Redirect via Mixin
@@ -205,14 +307,14 @@ public class SoundManager {
 			return result;
 		}
 
-		final String soundName = sound.getPositionedSoundLocation().toString();
+		final ResourceLocation soundName = sound.getPositionedSoundLocation();
 		if (poolEntry == null) {
 			ModLog.warn("getNormalizedVolume(%s): Null poolEntry parameter", soundName);
 		} else if (category == null) {
 			ModLog.warn("getNormalizedVolume(%s): Null category parameter", soundName);
 		} else {
 			try {
-				final float volumeScale = SoundRegistry.getVolumeScale(soundName);
+				final float volumeScale = SoundInterceptHandler.getVolumeScale(soundName);
 				result = (float) MathHelper.clamp_double(
 						sound.getVolume() * poolEntry.getVolume() * getVolume(category) * volumeScale, 0.0D, 1.0D);
 			} catch (final Throwable t) {
@@ -230,7 +332,7 @@ public class SoundManager {
 			return result;
 		}
 
-		final String soundName = sound.getPositionedSoundLocation().toString();
+		final ResourceLocation soundName = sound.getPositionedSoundLocation();
 		if (poolEntry == null) {
 			ModLog.warn("getNormalizedPitch(%s): Null poolEntry parameter", soundName);
 		} else {
@@ -265,7 +367,11 @@ public class SoundManager {
 		if (ModOptions.autoConfigureChannels && totalChannels > 64) {
 			totalChannels = ((totalChannels + 1) * 3) / 4;
 			streamChannelCount = totalChannels / 5;
+			// Use the split the channel balancer learned in an earlier session
+			if (ModOptions.learnedStreamingChannels > 0)
+				streamChannelCount = MathHelper.clamp_int(ModOptions.learnedStreamingChannels, 4, totalChannels / 3);
 			normalChannelCount = totalChannels - streamChannelCount;
+			deviceChannelCount = totalChannels;
 		}
 
 		ModLog.info("Sound channels: %d normal, %d streaming (total avail: %s)", normalChannelCount, streamChannelCount,
@@ -275,4 +381,20 @@ public class SoundManager {
 
 	}
 
+	/*
+	 * Channels available for automatic configuration, -1 if the channels
+	 * were configured by hand or the device could not be queried.
+	 */
+	public static int getDeviceChannelCount() {
+		return deviceChannelCount;
+	}
+
+	public static int getNormalChannelCount() {
+		return normalChannelCount;
+	}
+
+	public static int getStreamingChannelCount() {
+		return streamChannelCount;
+	}
+
 }
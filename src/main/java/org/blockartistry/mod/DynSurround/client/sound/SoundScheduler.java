@@ -0,0 +1,89 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound;
+
+import org.blockartistry.mod.DynSurround.util.MyUtils;
+import org.blockartistry.mod.DynSurround.util.TimerWheel;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+
+/*
+ * The timer wheel shared by everything that wants to play a sound
+ * later: delayed and deferred spot sounds as well as the footstep
+ * engine.  Slots are 10 msecs wide, five to a tick, so that footstep
+ * delays keep their sub-tick resolution.  The wheel spans a little more
+ * than 5 seconds per revolution; anything longer simply waits out the
+ * extra revolutions in its slot.
+ *
+ * Each user calls advance() from its own tick processing.  The wheel
+ * only moves forward so extra calls within the same slot are free.
+ */
+@SideOnly(Side.CLIENT)
+public final class SoundScheduler {
+
+	public static final int SOUNDS = 0;
+	public static final int FOOTSTEPS = 1;
+
+	public static final long TICK_MILLIS = 50L;
+
+	private static final int SLOT_MILLIS = 10;
+	private static final int SLOT_COUNT = 512;
+
+	private static final TimerWheel wheel = new TimerWheel(SLOT_MILLIS, SLOT_COUNT);
+
+	private SoundScheduler() {
+
+	}
+
+	public static void schedule(final TimerWheel.Timer timer, final long delayMillis) {
+		wheel.schedule(timer, MyUtils.currentTimeMillis(), delayMillis);
+	}
+
+	public static void scheduleTicks(final TimerWheel.Timer timer, final int ticks) {
+		schedule(timer, ticks * TICK_MILLIS);
+	}
+
+	public static void advance() {
+		wheel.advance(MyUtils.currentTimeMillis());
+	}
+
+	public static void cancel(final int group) {
+		wheel.cancel(group);
+	}
+
+	public static void cancelAll() {
+		wheel.cancelAll();
+	}
+
+	public static TimerWheel getWheel() {
+		return wheel;
+	}
+
+	public static String diagnostic() {
+		return String.format("Scheduler: %d pending (%d sounds, %d steps); peak %d; expired %d; cancelled %d",
+				wheel.size(), wheel.size(SOUNDS), wheel.size(FOOTSTEPS), wheel.getPeak(), wheel.getExpired(),
+				wheel.getCancelled());
+	}
+}
@@ -0,0 +1,139 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+
+import org.blockartistry.mod.DynSurround.ModOptions;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import paulscode.sound.FilenameURL;
+import paulscode.sound.Source;
+import paulscode.sound.SoundBuffer;
+import paulscode.sound.libraries.SourceLWJGLOpenAL;
+
+/*
+ * Recycles the paulscode Source objects behind short, non-streaming
+ * sounds.  Each SourceLWJGLOpenAL carries a pair of direct buffers for
+ * its position and velocity, so creating one for every spot sound and
+ * footstep and throwing it away when it finishes churns native memory.
+ * A finished source is parked here instead of being cleaned up and is
+ * re-targeted with changeSource() the next time one is needed.  On its
+ * own changeSource() would allocate a new pair of buffers, so a mixin
+ * has it refill the ones the source already owns.  The OpenAL source
+ * handles themselves belong to the library's channels, which paulscode
+ * already reuses.
+ *
+ * Sources are taken and given back from sound library commands, which
+ * paulscode serializes, but the lock is kept so the diagnostics can be
+ * read from the client thread.
+ */
+@SideOnly(Side.CLIENT)
+public final class SourcePool {
+
+	private static final ArrayDeque<SourceLWJGLOpenAL> pool = new ArrayDeque<>();
+
+	private static long reused;
+	private static long created;
+	private static long recycled;
+	private static long discarded;
+
+	private SourcePool() {
+
+	}
+
+	// Mixin hook for LibraryLWJGLOpenAL::newSource
+	public static SourceLWJGLOpenAL obtain(final FloatBuffer listenerPosition, final IntBuffer myBuffer,
+			final boolean priority, final boolean toStream, final boolean toLoop, final String sourcename,
+			final FilenameURL filenameURL, final SoundBuffer soundBuffer, final float x, final float y,
+			final float z, final int attModel, final float distOrRoll, final boolean temporary) {
+		if (!toStream) {
+			final SourceLWJGLOpenAL source;
+			synchronized (pool) {
+				source = pool.poll();
+				if (source != null)
+					reused++;
+			}
+			if (source != null) {
+				source.changeSource(listenerPosition, myBuffer, priority, toStream, toLoop, sourcename, filenameURL,
+						soundBuffer, x, y, z, attModel, distOrRoll, temporary);
+				return source;
+			}
+		}
+
+		synchronized (pool) {
+			created++;
+		}
+		return new SourceLWJGLOpenAL(listenerPosition, myBuffer, priority, toStream, toLoop, sourcename,
+				filenameURL, soundBuffer, x, y, z, attModel, distOrRoll, temporary);
+	}
+
+	/*
+	 * Mixin hook for Library::removeSource. Returns true if the source
+	 * was kept for reuse, false if the caller should clean it up.
+	 */
+	public static boolean recycle(final Source source) {
+		if (ModOptions.soundSourcePoolSize <= 0 || source.toStream || source.temporary
+				|| !(source instanceof SourceLWJGLOpenAL))
+			return false;
+
+		synchronized (pool) {
+			if (pool.size() >= ModOptions.soundSourcePoolSize) {
+				discarded++;
+				return false;
+			}
+
+			// Detach from the channel so the next play attaches the new
+			// buffer even if it lands on the same channel.
+			source.stop();
+			if (source.channel != null && source.channel.attachedSource == source)
+				source.channel.attachedSource = null;
+			source.channel = null;
+
+			pool.push((SourceLWJGLOpenAL) source);
+			recycled++;
+			return true;
+		}
+	}
+
+	// Mixin hook for LibraryLWJGLOpenAL::cleanup. Pooled sources refer to
+	// the library's listener so they go with it.
+	public static void clear() {
+		synchronized (pool) {
+			for (final SourceLWJGLOpenAL source : pool)
+				source.cleanup();
+			pool.clear();
+		}
+	}
+
+	public static String diagnostic() {
+		synchronized (pool) {
+			return String.format("Sources: pooled %d/%d; reused %d; created %d; recycled %d; discarded %d",
+					pool.size(), ModOptions.soundSourcePoolSize, reused, created, recycled, discarded);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
+import org.blockartistry.mod.DynSurround.client.SoundInterceptHandler;
+import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.audio.ISound;
+import net.minecraft.client.audio.SoundCategory;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.MathHelper;
+import paulscode.sound.SoundSystemConfig;
+
+/*
+ * Decides which sounds get a voice when the normal channels run short.
+ * Each sound is scored by the priority of its category and type, how
+ * loud it is and how close it is to the player.  While voices are free
+ * everything plays.  Once they are scarce a new sound either takes the
+ * voice of the lowest scoring sound that is playing, if that scores
+ * below it, or does not play.  Sounds without attenuation, music and
+ * records are never preempted.
+ *
+ * The voice is given out from the last handler of the play event, and
+ * the sound losing its voice is only stopped once the new one has
+ * actually started.
+ */
+@SideOnly(Side.CLIENT)
+public final class VoiceAllocator {
+
+	private static final int SOUND_QUEUE_SLACK = 6;
+	private static final int STATS_INTERVAL = 20;
+
+	private static final float SPOT_SOUND_FACTOR = 0.75F;
+	private static final float WATER_DRIP_FACTOR = 0.4F;
+
+	// Sounds that have been told to stop but have not yet been cleared
+	// out of the sound manager's playing list.
+	private static final Set<ISound> stopped = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	// The last preemption candidate found by canPreempt()
+	private static ISound candidate;
+	private static ISound victim;
+
+	// Sound given a voice by preemption and the sound to stop when it
+	// starts playing
+	private static ISound pendingSound;
+	private static ISound pendingVictim;
+
+	private static int allocations;
+	private static int preemptions;
+	private static int skips;
+	private static long totalSkips;
+	private static int statsTick;
+	private static String stats = "";
+
+	private VoiceAllocator() {
+
+	}
+
+	public static float getCategoryPriority(final SoundCategory category) {
+		if (category == null)
+			return 1.0F;
+		switch (category) {
+		case MUSIC:
+		case RECORDS:
+			return Float.POSITIVE_INFINITY;
+		case PLAYERS:
+			return 1.5F;
+		case MOBS:
+			return 1.2F;
+		case ANIMALS:
+			return 0.6F;
+		case AMBIENT:
+			return 0.5F;
+		default:
+			return 1.0F;
+		}
+	}
+
+	private static net.minecraft.client.audio.SoundManager getManager() {
+		return Minecraft.getMinecraft().getSoundHandler().sndManager;
+	}
+
+	private static boolean isProtected(@Nonnull final ISound sound) {
+		return sound.getAttenuationType() == ISound.AttenuationType.NONE
+				|| SoundInterceptHandler.getPriority(sound.getPositionedSoundLocation()) == Float.POSITIVE_INFINITY;
+	}
+
+	/*
+	 * Priority of the sound weighted by how close it is to the player,
+	 * leaving out how loud it is.
+	 */
+	public static float getUrgency(@Nonnull final ISound sound, @Nonnull final EntityPlayer player) {
+		float priority = SoundInterceptHandler.getPriority(sound.getPositionedSoundLocation());
+		if (sound instanceof SpotSound spot)
+			priority *= spot.getSoundEffect() == BiomeRegistry.WATER_DRIP ? WATER_DRIP_FACTOR : SPOT_SOUND_FACTOR;
+
+		final float dx = sound.getXPosF() - (float) player.posX;
+		final float dy = sound.getYPosF() - (float) player.posY;
+		final float dz = sound.getZPosF() - (float) player.posZ;
+		final float range = 16.0F * Math.max(1.0F, sound.getVolume());
+		final float audibility = Math.max(0.0F, 1.0F - MathHelper.sqrt_float(dx * dx + dy * dy + dz * dz) / range);
+		return priority * (0.1F + audibility);
+	}
+
+	public static float score(@Nonnull final ISound sound, @Nonnull final EntityPlayer player) {
+		return getUrgency(sound, player) * Math.min(1.0F, sound.getVolume());
+	}
+
+	private static int getVoiceCount() {
+		final net.minecraft.client.audio.SoundManager manager = getManager();
+		if (!stopped.isEmpty())
+			stopped.removeIf(sound -> !manager.invPlayingSounds.containsKey(sound));
+		return manager.playingSounds.size() - stopped.size();
+	}
+
+	public static boolean hasFreeVoice() {
+		return getVoiceCount() < (SoundSystemConfig.getNumberNormalChannels() - SOUND_QUEUE_SLACK);
+	}
+
+	private static ISound findVictim(@Nonnull final ISound sound, @Nonnull final EntityPlayer player) {
+		final float score = score(sound, player);
+		ISound lowest = null;
+		float lowestScore = score;
+		for (final Object o : getManager().playingSounds.values()) {
+			final ISound playing = (ISound) o;
+			if (playing == sound || stopped.contains(playing) || isProtected(playing))
+				continue;
+			final float s = score(playing, player);
+			if (s < lowestScore) {
+				lowestScore = s;
+				lowest = playing;
+			}
+		}
+		return lowest;
+	}
+
+	/*
+	 * Determines if the sound would get a voice, either because one is
+	 * free or because it outranks a sound that is playing.
+	 */
+	public static boolean canPreempt(@Nonnull final ISound sound) {
+		final EntityPlayer player = EnvironState.getPlayer();
+		if (player == null)
+			return false;
+		candidate = sound;
+		victim = findVictim(sound, player);
+		return victim != null;
+	}
+
+	/*
+	 * Gets a voice for the sound, picking a lower scoring sound to stop
+	 * when it starts if need be. Returns false if the sound should not be
+	 * played.
+	 */
+	public static boolean allocate(@Nonnull final ISound sound) {
+		rollStats();
+
+		if (isProtected(sound) || hasFreeVoice()) {
+			allocations++;
+			return true;
+		}
+
+		final EntityPlayer player = EnvironState.getPlayer();
+		final ISound target = candidate == sound ? victim : player != null ? findVictim(sound, player) : null;
+		candidate = null;
+		victim = null;
+
+		if (target == null || !getManager().invPlayingSounds.containsKey(target)) {
+			skips++;
+			totalSkips++;
+			return false;
+		}
+
+		pendingSound = sound;
+		pendingVictim = target;
+		allocations++;
+		return true;
+	}
+
+	// Called from SoundManager.onSoundStarted once a sound is playing
+	public static void onSoundStarted(@Nonnull final ISound sound) {
+		if (sound != pendingSound)
+			return;
+		final ISound target = pendingVictim;
+		pendingSound = null;
+		pendingVictim = null;
+		if (getManager().invPlayingSounds.containsKey(target)) {
+			getManager().stopSound(target);
+			stopped.add(target);
+			preemptions++;
+		}
+	}
+
+	public static void clear() {
+		stopped.clear();
+		candidate = null;
+		victim = null;
+		pendingSound = null;
+		pendingVictim = null;
+	}
+
+	private static void rollStats() {
+		final int tick = EnvironState.getTickCounter();
+		if (tick - statsTick < STATS_INTERVAL)
+			return;
+		final float seconds = (tick - statsTick) / 20.0F;
+		stats = String.format("Voices: %.1f alloc/s; %.1f preempt/s; %.1f skip/s", allocations / seconds,
+				preemptions / seconds, skips / seconds);
+		allocations = 0;
+		preemptions = 0;
+		skips = 0;
+		statsTick = tick;
+	}
+
+	public static long getSkipCount() {
+		return totalSkips;
+	}
+
+	public static String diagnostic() {
+		rollStats();
+		return stats;
+	}
+
+}
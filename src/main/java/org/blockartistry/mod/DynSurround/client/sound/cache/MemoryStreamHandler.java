@@ -23,6 +23,7 @@
 
 package org.blockartistry.mod.DynSurround.client.sound.cache;
 
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLConnection;
 
@@ -32,19 +33,44 @@ import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.util.ResourceLocation;
 
+/*
+ * Serves a sound from an in-memory buffer. Once the buffer has been
+ * evicted from the cache the sound is streamed from the resource pack
+ * like any other.
+ */
 @SideOnly(Side.CLIENT)
 public class MemoryStreamHandler extends SoundStreamHandler {
 
-	protected final byte[] buffer;
+	protected volatile byte[] buffer;
+
+	// Set when the sound is requested; cleared by the cache as it looks
+	// for something to evict
+	protected volatile boolean referenced;
 
 	public MemoryStreamHandler(@Nonnull final ResourceLocation resource, @Nonnull final byte[] buffer) {
 		super(resource);
 		this.buffer = buffer;
 	}
 
+	public int size() {
+		final byte[] b = this.buffer;
+		return b == null ? 0 : b.length;
+	}
+
+	public void evict() {
+		this.buffer = null;
+	}
+
 	@Override
 	protected URLConnection createConnection(@Nonnull final URL url) {
-		return new MemoryURLConnection(url, this.buffer);
+		final byte[] b = this.buffer;
+		return b != null ? new MemoryURLConnection(url, b) : super.createConnection(url);
+	}
+
+	@Override
+	protected URLConnection openConnection(@Nonnull final URL url) throws IOException {
+		// Not cached; the backing changes when the buffer is evicted
+		return createConnection(url);
 	}
 
 }
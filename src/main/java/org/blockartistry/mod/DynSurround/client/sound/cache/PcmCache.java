@@ -0,0 +1,235 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound.cache;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.sound.sampled.AudioFormat;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.ModOptions;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.util.ResourceLocation;
+import paulscode.sound.ICodec;
+import paulscode.sound.SoundBuffer;
+import paulscode.sound.SoundSystem;
+import paulscode.sound.SoundSystemConfig;
+
+/*
+ * Optional tier holding decoded audio for short sounds.  Sounds are
+ * decoded off thread ahead of their first play and handed to the sound
+ * system under the same identifier Minecraft uses, so the library finds
+ * the audio already loaded instead of decoding it when the sound should
+ * start.  The decoded array is the one the library keeps, so there is a
+ * single copy on the heap, and it is handed over again whenever the
+ * sound system is restarted.
+ */
+@SideOnly(Side.CLIENT)
+public final class PcmCache {
+
+	private static final class Entry {
+		public final String name;
+		public final byte[] data;
+		public final AudioFormat format;
+		public Object uploadedTo;
+
+		public Entry(@Nonnull final String name, @Nonnull final byte[] data, @Nonnull final AudioFormat format) {
+			this.name = name;
+			this.data = data;
+			this.format = format;
+		}
+	}
+
+	// Decoded sounds in access order. Guarded by itself.
+	private static final LinkedHashMap<ResourceLocation, Entry> resident = new LinkedHashMap<>(64, 0.75F, true);
+	// Lock free view of the resident keys for the per-request hit check
+	private static final ConcurrentHashMap<ResourceLocation, Entry> residentIndex = new ConcurrentHashMap<>(64);
+	// Trimmed entries the sound system may still hold. Guarded by resident.
+	private static final List<Entry> evicted = new ArrayList<>();
+	private static long residentBytes = 0;
+	private static long uploadedBytes = 0;
+	private static volatile boolean pending = false;
+	private static Object soundSystem = null;
+
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	private PcmCache() {
+
+	}
+
+	private static long getBudget() {
+		return ModOptions.soundPcmCacheSize * 1024L;
+	}
+
+	public static boolean isEnabled() {
+		return ModOptions.soundPcmCacheSize > 0;
+	}
+
+	/*
+	 * Decodes a sound into the tier. Only sounds short enough to be held
+	 * by the sound cache are considered. Runs on the prefetch workers.
+	 */
+	public static void prefetch(@Nonnull final ResourceLocation resource) {
+		if (!isEnabled() || !SoundCache.isResident(resource))
+			return;
+
+		synchronized (resident) {
+			if (resident.containsKey(resource) || residentBytes >= getBudget())
+				return;
+		}
+
+		final SoundBuffer buffer = decode(resource);
+		if (buffer == null || buffer.audioData == null || buffer.audioData.length == 0)
+			return;
+
+		final Entry entry = new Entry(resource.toString(), buffer.audioData, buffer.audioFormat);
+
+		synchronized (resident) {
+			if (resident.containsKey(resource))
+				return;
+			resident.put(resource, entry);
+			residentIndex.put(resource, entry);
+			residentBytes += entry.data.length;
+			trim(getBudget());
+		}
+		pending = true;
+	}
+
+	private static SoundBuffer decode(@Nonnull final ResourceLocation resource) {
+		// Only the in-memory copy is used; loading from the resource
+		// pack is not safe off the client thread.
+		final URL url = SoundCache.getResidentURL(resource);
+		final ICodec codec = SoundSystemConfig.getCodec(resource.getResourcePath());
+		if (url == null || codec == null)
+			return null;
+
+		try {
+			if (!codec.initialize(url))
+				return null;
+			return codec.readAll();
+		} catch (@Nonnull final Throwable t) {
+			ModLog.debug("Unable to decode [%s]", resource.toString());
+			return null;
+		} finally {
+			codec.cleanup();
+		}
+	}
+
+	// Caller holds the resident lock. Entries already handed to the
+	// sound system are queued so upload() can release them there too.
+	private static void trim(final long budget) {
+		final Iterator<Map.Entry<ResourceLocation, Entry>> itr = resident.entrySet().iterator();
+		while (residentBytes > budget && itr.hasNext()) {
+			final Map.Entry<ResourceLocation, Entry> e = itr.next();
+			final Entry entry = e.getValue();
+			residentBytes -= entry.data.length;
+			residentIndex.remove(e.getKey());
+			itr.remove();
+			if (entry.uploadedTo != null) {
+				evicted.add(entry);
+				pending = true;
+			}
+		}
+	}
+
+	/*
+	 * Releases trimmed sounds from the sound system and hands decoded
+	 * sounds it has not seen yet over to it. Called from the client
+	 * thread each tick.
+	 */
+	public static void upload() {
+		final net.minecraft.client.audio.SoundManager manager = Minecraft.getMinecraft().getSoundHandler().sndManager;
+		if (!manager.loaded)
+			return;
+
+		// A restarted sound system has lost everything handed to it
+		final Object system = manager.sndSystem;
+		if (system != soundSystem) {
+			soundSystem = system;
+			uploadedBytes = 0;
+			pending = true;
+		}
+
+		if (!pending)
+			return;
+		pending = false;
+
+		final SoundSystem sounds = (SoundSystem) system;
+		synchronized (resident) {
+			for (final Entry entry : evicted) {
+				if (entry.uploadedTo == system) {
+					sounds.unloadSound(entry.name);
+					uploadedBytes -= entry.data.length;
+				}
+				entry.uploadedTo = null;
+			}
+			evicted.clear();
+
+			for (final Entry entry : resident.values()) {
+				if (entry.uploadedTo == system)
+					continue;
+				entry.uploadedTo = system;
+				sounds.loadSound(entry.data, entry.format, entry.name);
+				uploadedBytes += entry.data.length;
+			}
+		}
+	}
+
+	// Called for each sound request to track how often the tier serves
+	static void touch(@Nonnull final ResourceLocation resource) {
+		(residentIndex.containsKey(resource) ? hits : misses).incrementAndGet();
+	}
+
+	public static long getResidentBytes() {
+		synchronized (resident) {
+			return residentBytes;
+		}
+	}
+
+	public static long getUploadedBytes() {
+		synchronized (resident) {
+			return uploadedBytes;
+		}
+	}
+
+	public static String diagnostic() {
+		final long h = hits.get();
+		final long total = h + misses.get();
+		return String.format("SoundPCM: %d/%d KB (%d KB loaded); hit %.1f%%", getResidentBytes() / 1024,
+				getBudget() / 1024, getUploadedBytes() / 1024, total == 0 ? 0.0F : h * 100.0F / total);
+	}
+
+}
@@ -23,13 +23,19 @@
 
 package org.blockartistry.mod.DynSurround.client.sound.cache;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import javax.annotation.Nonnull;
 
+import org.blockartistry.mod.DynSurround.ModLog;
+
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.client.Minecraft;
@@ -40,6 +46,15 @@ public class ResourceURLConnection extends URLConnection {
 
 	protected final ResourceLocation resource;
 
+	// Memory mapped view of the sound file if it lives in a directory
+	// pack. Each stream gets its own duplicate of the mapping. The file
+	// is located again for every stream so that a change to the active
+	// resource packs is picked up.
+	protected File file;
+	protected ByteBuffer mapped;
+	protected long mappedLength;
+	protected long mappedModified;
+
 	protected ResourceURLConnection(@Nonnull final URL url, @Nonnull final ResourceLocation resource) {
 		super(url);
 
@@ -50,8 +65,42 @@ public class ResourceURLConnection extends URLConnection {
 	public void connect() throws IOException {
 	}
 
+	protected synchronized ByteBuffer getMapping() {
+		final File found = SoundFileLocator.find(this.resource);
+		if (found == null || !found.equals(this.file)) {
+			this.file = found;
+			this.mapped = null;
+		}
+
+		if (this.file == null)
+			return null;
+
+		final long length = this.file.length();
+		final long modified = this.file.lastModified();
+		if (this.mapped == null || length != this.mappedLength || modified != this.mappedModified) {
+			this.mapped = null;
+			if (length <= 0 || length > Integer.MAX_VALUE)
+				return null;
+			try (final RandomAccessFile raf = new RandomAccessFile(this.file, "r")) {
+				// The mapping stays valid after the channel is closed
+				this.mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+				this.mappedLength = length;
+				this.mappedModified = modified;
+			} catch (@Nonnull final Throwable t) {
+				ModLog.debug("Unable to map [%s]", this.file.toString());
+				return null;
+			}
+		}
+
+		return this.mapped.duplicate();
+	}
+
 	@Override
 	public InputStream getInputStream() throws IOException {
+		final ByteBuffer buffer = getMapping();
+		if (buffer != null)
+			return new MappedInputStream(buffer);
+
 		final InputStream stream = Minecraft.getMinecraft().getResourceManager().getResource(this.resource)
 				.getInputStream();
 		return new SoundInputStream(stream);
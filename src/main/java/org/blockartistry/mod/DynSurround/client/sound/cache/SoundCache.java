@@ -23,15 +23,20 @@
 
 package org.blockartistry.mod.DynSurround.client.sound.cache;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 
 import org.blockartistry.mod.DynSurround.ModLog;
+import org.blockartistry.mod.DynSurround.ModOptions;
 
 import com.google.common.io.ByteStreams;
 
@@ -41,13 +46,43 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResourceManager;
 import net.minecraft.util.ResourceLocation;
 
+/*
+ * Maps sound resources to URLs for the sound system. Short sounds are
+ * held in memory up to the configured budget. Eviction is second
+ * chance: sounds are looked at oldest first, and one that was requested
+ * since it was last looked at is kept and moved to the back. That way a
+ * cache hit only sets a flag and takes no lock. An evicted sound keeps
+ * working by streaming from the resource pack, and is read back into
+ * memory the next time it is requested. Lookups can come from any
+ * thread.
+ */
 @SideOnly(Side.CLIENT)
 public final class SoundCache {
 
 	private static final int BUFFER_SIZE = 64 * 1024;
-	private static final byte[] BUFFER = new byte[BUFFER_SIZE];
+	private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[BUFFER_SIZE];
+		}
+	};
 	private static final IResourceManager manager = Minecraft.getMinecraft().getResourceManager();
-	private static final Map<ResourceLocation, URL> cache = new HashMap<>(256);
+	private static final ConcurrentHashMap<ResourceLocation, URL> cache = new ConcurrentHashMap<>(256);
+
+	// Memory resident sounds in the order they are looked at for eviction.
+	// Guarded by itself, as are changes to the URL entries of memory
+	// resident sounds and to the index.
+	private static final LinkedHashMap<ResourceLocation, MemoryStreamHandler> resident = new LinkedHashMap<>(256);
+	private static long residentBytes = 0;
+
+	// Same contents as resident for lookups without the lock
+	private static final ConcurrentHashMap<ResourceLocation, MemoryStreamHandler> residentIndex = new ConcurrentHashMap<>(
+			256);
+
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong evictions = new AtomicLong();
+	private static final AtomicLong prefetches = new AtomicLong();
 
 	private static final byte[] SILENCE = getBuffer(new ResourceLocation("dsurround:sounds/ambient/silence.ogg"));
 
@@ -62,57 +97,207 @@ public final class SoundCache {
 			if (stream == null) {
 				ModLog.warn("No stream returned for [%s]", resource.toString());
 				return SILENCE;
-			} else if (stream.available() < BUFFER_SIZE) {
-				final int bytesRead = ByteStreams.read(stream, BUFFER, 0, BUFFER_SIZE);
-				// If no bytes were returned, or the total read was 64K, assume
-				// that it needs to be streamed.
-				if (bytesRead == 0 || bytesRead == BUFFER_SIZE)
-					return null;
-				// Make a new array containing the data. Don't want to
-				// pass back BUFFER.
-				return Arrays.copyOf(BUFFER, bytesRead);
 			}
+			return read(stream);
 		} catch (@Nonnull final Throwable t) {
 			ModLog.warn("Error reading stream [%s]", resource.toString());
 			return SILENCE;
 		} finally {
-			if (stream != null)
-				try {
-					stream.close();
-				} catch (final Throwable ignored) {
-				}
+			close(stream);
 		}
+	}
 
+	// Returns null if the sound is too big to hold and needs to be streamed
+	private static byte[] read(@Nonnull final InputStream stream) throws IOException {
+		if (stream.available() < BUFFER_SIZE) {
+			final byte[] buffer = BUFFER.get();
+			final int bytesRead = ByteStreams.read(stream, buffer, 0, BUFFER_SIZE);
+			// If no bytes were returned, or the total read was 64K, assume
+			// that it needs to be streamed.
+			if (bytesRead == 0 || bytesRead == BUFFER_SIZE)
+				return null;
+			// Make a new array containing the data. Don't want to
+			// pass back BUFFER.
+			return Arrays.copyOf(buffer, bytesRead);
+		}
 		return null;
 	}
 
-	private static URL load(@Nonnull final ResourceLocation key) throws Exception {
+	private static void close(final InputStream stream) {
+		if (stream != null)
+			try {
+				stream.close();
+			} catch (final Throwable ignored) {
+			}
+	}
+
+	private static SoundStreamHandler load(@Nonnull final ResourceLocation key) {
+
+		// Nothing to gain reading a sound that cannot be kept
+		final byte[] buffer = getBudget() > 0 ? getBuffer(key) : null;
 
-		final byte[] buffer = getBuffer(key);
-		final SoundStreamHandler handler;
+		if (buffer == null)
+			return new SoundStreamHandler(key);
+		return new MemoryStreamHandler(key, buffer);
+	}
+
+	private static long getBudget() {
+		return ModOptions.soundCacheSize * 1024L;
+	}
 
-		if (buffer == null) {
-			handler = new SoundStreamHandler(key);
-		} else {
-			handler = new MemoryStreamHandler(key, buffer);
+	private static URL admit(@Nonnull final ResourceLocation key, @Nonnull final URL url,
+			@Nonnull final MemoryStreamHandler handler) {
+		synchronized (resident) {
+			final URL existing = cache.putIfAbsent(key, url);
+			if (existing != null)
+				return existing;
+			resident.put(key, handler);
+			residentIndex.put(key, handler);
+			residentBytes += handler.size();
+			trim(getBudget());
+			return url;
 		}
+	}
 
-		return new URL(null, handler.getSpec(), handler);
+	// Caller holds the resident lock
+	private static void trim(final long budget) {
+		// Each sound gets at most one second chance per trim
+		int chances = resident.size();
+		while (residentBytes > budget && !resident.isEmpty()) {
+			final Iterator<Map.Entry<ResourceLocation, MemoryStreamHandler>> itr = resident.entrySet().iterator();
+			final Map.Entry<ResourceLocation, MemoryStreamHandler> entry = itr.next();
+			final ResourceLocation key = entry.getKey();
+			final MemoryStreamHandler handler = entry.getValue();
+			itr.remove();
+			if (handler.referenced && chances-- > 0) {
+				handler.referenced = false;
+				resident.put(key, handler);
+				continue;
+			}
+			residentIndex.remove(key);
+			residentBytes -= handler.size();
+			handler.evict();
+			// Drop the URL so the next request reads the sound back in.
+			// Anyone holding the old URL gets a stream.
+			cache.remove(key);
+			evictions.incrementAndGet();
+		}
+	}
+
+	private static void touch(@Nonnull final ResourceLocation key) {
+		final MemoryStreamHandler handler = residentIndex.get(key);
+		if (handler != null && !handler.referenced)
+			handler.referenced = true;
 	}
 
 	private SoundCache() {
 
 	}
 
+	private static URL create(@Nonnull final ResourceLocation soundResource) {
+		final SoundStreamHandler handler = load(soundResource);
+		final URL result;
+		try {
+			result = new URL(null, handler.getSpec(), handler);
+		} catch (@Nonnull final Throwable t) {
+			throw new Error("Unable to load sound from cache!");
+		}
+
+		// Another thread may have beaten us to it
+		if (handler instanceof MemoryStreamHandler memory)
+			return admit(soundResource, result, memory);
+		final URL existing = cache.putIfAbsent(soundResource, result);
+		return existing != null ? existing : result;
+	}
+
 	public static URL getURLForSoundResource(@Nonnull final ResourceLocation soundResource) {
-		URL result = cache.get(soundResource);
-		if (result == null)
-			try {
-				cache.put(soundResource, result = load(soundResource));
-			} catch (@Nonnull final Throwable t) {
-				throw new Error("Unable to load sound from cache!");
-			}
-		return result;
+		if (PcmCache.isEnabled())
+			PcmCache.touch(soundResource);
+
+		final URL result = cache.get(soundResource);
+		if (result != null) {
+			hits.incrementAndGet();
+			touch(soundResource);
+			return result;
+		}
+
+		misses.incrementAndGet();
+		return create(soundResource);
+	}
+
+	// Same as getURLForSoundResource() but does not count as a request
+	static URL getURL(@Nonnull final ResourceLocation soundResource) {
+		final URL result = cache.get(soundResource);
+		return result != null ? result : create(soundResource);
+	}
+
+	static boolean isResident(@Nonnull final ResourceLocation soundResource) {
+		return residentIndex.containsKey(soundResource);
+	}
+
+	// Like getURL() but never loads; null unless the sound is in memory
+	static URL getResidentURL(@Nonnull final ResourceLocation soundResource) {
+		return residentIndex.containsKey(soundResource) ? cache.get(soundResource) : null;
+	}
+
+	/*
+	 * Whether a prefetch of the sound would do anything. Warming should
+	 * not push out sounds that are actually playing, so nothing is
+	 * fetched once the memory budget has been used up.
+	 */
+	public static boolean wantsPrefetch(@Nonnull final ResourceLocation soundResource) {
+		return getBudget() > 0 && !cache.containsKey(soundResource) && getResidentBytes() < getBudget();
+	}
+
+	/*
+	 * Loads a sound ahead of its first request from a stream that was
+	 * opened on the client thread; the resource manager is not safe to
+	 * use from other threads. The stream is closed. Sounds that cannot
+	 * be read or are too big to hold are left alone so that a request
+	 * loads them the usual way.
+	 */
+	public static void prefetch(@Nonnull final ResourceLocation soundResource, @Nonnull final InputStream stream) {
+		try {
+			if (!wantsPrefetch(soundResource))
+				return;
+			final byte[] buffer = read(stream);
+			if (buffer == null)
+				return;
+			final MemoryStreamHandler handler = new MemoryStreamHandler(soundResource, buffer);
+			admit(soundResource, new URL(null, handler.getSpec(), handler), handler);
+			prefetches.incrementAndGet();
+		} catch (@Nonnull final Throwable t) {
+			ModLog.debug("Unable to prefetch [%s]", soundResource.toString());
+		} finally {
+			close(stream);
+		}
+	}
+
+	public static long getHits() {
+		return hits.get();
+	}
+
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	public static long getEvictions() {
+		return evictions.get();
+	}
+
+	public static long getResidentBytes() {
+		synchronized (resident) {
+			return residentBytes;
+		}
+	}
+
+	public static long getPrefetches() {
+		return prefetches.get();
+	}
+
+	public static String diagnostic() {
+		return String.format("SoundCache: %d/%d KB; h %d; m %d; e %d; p %d", getResidentBytes() / 1024,
+				getBudget() / 1024, getHits(), getMisses(), getEvictions(), getPrefetches());
 	}
 
 }
@@ -0,0 +1,111 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.client.sound.cache;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.blockartistry.mod.DynSurround.ModLog;
+
+import cpw.mods.fml.relauncher.ReflectionHelper;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.AbstractResourcePack;
+import net.minecraft.client.resources.FallbackResourceManager;
+import net.minecraft.client.resources.FolderResourcePack;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourcePack;
+import net.minecraft.client.resources.SimpleReloadableResourceManager;
+import net.minecraft.util.ResourceLocation;
+
+/*
+ * Finds the file on disk that backs a sound resource when the resource
+ * pack serving it is a plain directory.  Packs are searched the same
+ * way the resource manager does, last one added wins.  Sounds in zip
+ * and jar packs have no file of their own and are not located.
+ */
+@SideOnly(Side.CLIENT)
+final class SoundFileLocator {
+
+	private static Field domainManagers;
+	private static Field resourcePacks;
+	private static Field packFile;
+
+	static {
+		try {
+			domainManagers = ReflectionHelper.findField(SimpleReloadableResourceManager.class,
+					"domainResourceManagers", "field_110548_a");
+			resourcePacks = ReflectionHelper.findField(FallbackResourceManager.class, "resourcePacks",
+					"field_110540_a");
+			packFile = ReflectionHelper.findField(AbstractResourcePack.class, "resourcePackFile", "field_110597_b");
+		} catch (final Throwable t) {
+			ModLog.debug("Unable to locate resource manager fields; sounds will not be mapped");
+			domainManagers = null;
+			resourcePacks = null;
+			packFile = null;
+		}
+	}
+
+	private SoundFileLocator() {
+
+	}
+
+	public static File find(@Nonnull final ResourceLocation resource) {
+		if (domainManagers == null)
+			return null;
+
+		final IResourceManager manager = Minecraft.getMinecraft().getResourceManager();
+		if (!(manager instanceof SimpleReloadableResourceManager))
+			return null;
+
+		try {
+			final Object domain = ((Map<?, ?>) domainManagers.get(manager)).get(resource.getResourceDomain());
+			if (domain == null)
+				return null;
+
+			final List<?> packs = (List<?>) resourcePacks.get(domain);
+			for (int i = packs.size() - 1; i >= 0; i--) {
+				final IResourcePack pack = (IResourcePack) packs.get(i);
+				if (!pack.resourceExists(resource))
+					continue;
+				if (!(pack instanceof FolderResourcePack))
+					return null;
+				final File root = (File) packFile.get(pack);
+				final File file = new File(root, String.format("assets/%s/%s", resource.getResourceDomain(),
+						resource.getResourcePath()));
+				return file.isFile() ? file : null;
+			}
+		} catch (final Throwable t) {
+			ModLog.debug("Unable to locate file for [%s]", resource.toString());
+		}
+
+		return null;
+	}
+
+}
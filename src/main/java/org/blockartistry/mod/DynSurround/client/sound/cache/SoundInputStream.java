@@ -49,6 +49,24 @@ public class SoundInputStream extends InputStream {
 		}
 	}
 
+	@Override
+	public int read(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+		try {
+			return this.stream.read(b, off, len);
+		} catch (@Nonnull final Throwable t) {
+			return -1;
+		}
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		try {
+			return this.stream.skip(n);
+		} catch (@Nonnull final Throwable t) {
+			return 0;
+		}
+	}
+
 	@Override
 	public int available() throws IOException {
 		try {
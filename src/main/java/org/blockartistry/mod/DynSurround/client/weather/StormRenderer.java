@@ -25,6 +25,7 @@
 package org.blockartistry.mod.DynSurround.client.weather;
 
 import org.blockartistry.mod.DynSurround.Module;
+import org.blockartistry.mod.DynSurround.client.ColumnCache;
 import org.blockartistry.mod.DynSurround.client.IAtmosRenderer;
 import org.blockartistry.mod.DynSurround.client.WeatherUtils;
 import org.blockartistry.mod.DynSurround.data.BiomeRegistry;
@@ -74,7 +75,7 @@ public class StormRenderer implements IAtmosRenderer {
 	private static int getPrecipitationHeight(final World world, final int x, final int z) {
 		if (world.provider.dimensionId == -1)
 			return 0;
-		return world.getPrecipitationHeight(x, z);
+		return ColumnCache.getPrecipitationHeight(world, x, z);
 	}
 
 	@Override
@@ -133,7 +134,7 @@ public class StormRenderer implements IAtmosRenderer {
 				final int idx = (locZ - playerZ + 16) * 32 + locX - playerX + 16;
 				final float f6 = RAIN_X_COORDS[idx] * 0.5F;
 				final float f7 = RAIN_Y_COORDS[idx] * 0.5F;
-				final BiomeGenBase biome = world.getBiomeGenForCoords(locX, locZ);
+				final BiomeGenBase biome = ColumnCache.getBiome(world, locX, locZ);
 				final boolean hasDust = WeatherUtils.biomeHasDust(biome);
 
 				if (hasDust || BiomeRegistry.hasPrecipitation(biome)) {
@@ -26,6 +26,7 @@ package org.blockartistry.mod.DynSurround.client.weather;
 
 import org.apache.commons.lang3.StringUtils;
 import org.blockartistry.mod.DynSurround.ModOptions;
+import org.blockartistry.mod.DynSurround.client.ColumnCache;
 import org.blockartistry.mod.DynSurround.client.EnvironStateHandler.EnvironState;
 import org.blockartistry.mod.DynSurround.client.WeatherUtils;
 import org.blockartistry.mod.DynSurround.client.fx.particle.ParticleFactory;
@@ -111,7 +112,7 @@ public class StormSplashRenderer {
 	}
 
 	protected int getPrecipitationHeight(final World world, final int range, final int x, final int z) {
-		return world.getPrecipitationHeight(x, z);
+		return ColumnCache.getPrecipitationHeight(world, x, z);
 	}
 
 	protected void playSplashSound(final EntityRenderer renderer, final WorldClient world,
@@ -120,7 +121,7 @@ public class StormSplashRenderer {
 		final int theY = MathHelper.floor_double(y);
 		final int theZ = MathHelper.floor_double(z);
 
-		final boolean hasDust = WeatherUtils.biomeHasDust(world.getBiomeGenForCoords(theX, theZ));
+		final boolean hasDust = WeatherUtils.biomeHasDust(ColumnCache.getBiome(world, theX, theZ));
 		final Block block = world.getBlock(theX, theY - 1, theZ);
 		final String sound = getBlockSoundFX(block, hasDust, world);
 		if (!StringUtils.isEmpty(sound)) {
@@ -129,7 +130,7 @@ public class StormSplashRenderer {
 			final int playerX = MathHelper.floor_double(player.posX);
 			final int playerY = MathHelper.floor_double(player.posY);
 			final int playerZ = MathHelper.floor_double(player.posZ);
-			if (y > player.posY + 1.0D && world.getPrecipitationHeight(playerX, playerZ) > playerY)
+			if (y > player.posY + 1.0D && ColumnCache.getPrecipitationHeight(world, playerX, playerZ) > playerY)
 				pitch = 0.5F;
 			renderer.mc.theWorld.playSound(x, y, z, sound, volume, pitch, false);
 		}
@@ -169,7 +170,7 @@ public class StormSplashRenderer {
 			final int locX = playerX + RANDOM.nextInt(RANGE) - RANDOM.nextInt(RANGE);
 			final int locZ = playerZ + RANDOM.nextInt(RANGE) - RANDOM.nextInt(RANGE);
 			final int locY = getPrecipitationHeight(worldclient, RANGE / 2, locX, locZ);
-			final BiomeGenBase biome = worldclient.getBiomeGenForCoords(locX, locZ);
+			final BiomeGenBase biome = ColumnCache.getBiome(worldclient, locX, locZ);
 			final boolean hasDust = WeatherUtils.biomeHasDust(biome);
 
 			if (locY <= playerY + RANGE && locY >= playerY - RANGE && (hasDust || (BiomeRegistry.hasPrecipitation(biome)
@@ -208,7 +208,14 @@ public class BlockPos {
 	 * Serialize this BlockPos into a long value
 	 */
 	public long toLong() {
-		return (getX() & X_MASK) << X_SHIFT | (getY() & Y_MASK) << Y_SHIFT | (getZ() & Z_MASK) << 0;
+		return toLong(getX(), getY(), getZ());
+	}
+
+	/**
+	 * Serialize the coordinates into a long value without creating a BlockPos
+	 */
+	public static long toLong(final int x, final int y, final int z) {
+		return (x & X_MASK) << X_SHIFT | (y & Y_MASK) << Y_SHIFT | (z & Z_MASK) << 0;
 	}
 
 	/**
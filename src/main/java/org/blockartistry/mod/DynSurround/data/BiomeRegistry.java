@@ -42,7 +42,9 @@ import org.blockartistry.mod.DynSurround.util.MyUtils;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -51,6 +53,12 @@ import java.util.regex.Pattern;
 public final class BiomeRegistry {
     public static final Map<String, BiomeRegistryEntry> registry = new HashMap<>();
 	private static final Map<String, String> biomeAliases = new HashMap<>();
+	private static int generation;
+
+	// Read-only view of the registry indexed by biome ID. Rebuilt and
+	// republished whenever the registry changes so that lookups on the
+	// render path do not need to take the registry lock.
+	private static volatile Snapshot snapshot = new Snapshot();
 
 	public static final BiomeGenBase UNDERGROUND = new FakeBiome(-1, "Underground");
 	public static final BiomeGenBase PLAYER = new FakeBiome(-2, "Player");
@@ -99,6 +107,7 @@ public final class BiomeRegistry {
 
 		public int spotSoundChance;
 		public List<SoundEffect> spotSounds;
+		private SoundSelector spotSelector;
 
 		public BiomeRegistryEntry(final BiomeGenBase biome) {
 			this.biome = biome;
@@ -122,14 +131,14 @@ public final class BiomeRegistry {
 			}
 		}
 
-		public SoundEffect findSoundMatch(final String conditions) {
+		public SoundEffect findSoundMatch(final Conditions conditions) {
 			for (final SoundEffect sound : this.sounds)
 				if (sound.matches(conditions))
 					return sound;
 			return null;
 		}
 
-		public List<SoundEffect> findSoundMatches(final String conditions) {
+		public List<SoundEffect> findSoundMatches(final Conditions conditions) {
 			final List<SoundEffect> results = new ArrayList<>();
 			for (final SoundEffect sound : this.sounds)
 				if (sound.matches(conditions))
@@ -253,14 +262,109 @@ public final class BiomeRegistry {
 
 			// Free memory because we no longer need
 			biomeAliases.clear();
+			generation++;
+			snapshot = new Snapshot(registry);
 		}
 
 		MinecraftForge.EVENT_BUS.post(new RegistryReloadEvent.Biome());
 	}
 
+	/*
+	 * Bumped each time the registry is reloaded.
+	 */
+	public static int getGeneration() {
+		return generation;
+	}
+
+	private static final class Snapshot {
+
+		private final BiomeRegistryEntry[] entries;
+		private final BiomeRegistryEntry[] fakes;
+		private final BiomeRegistryEntry wtf;
+		// Biomes that lost an id collision or were resolved by the slow
+		// path; never changed once the snapshot is published
+		private final Map<BiomeGenBase, BiomeRegistryEntry> others;
+
+		private Snapshot() {
+			this.entries = new BiomeRegistryEntry[0];
+			this.fakes = new BiomeRegistryEntry[0];
+			this.wtf = null;
+			this.others = new IdentityHashMap<>();
+		}
+
+		private Snapshot(final Snapshot source, final BiomeGenBase biome, final BiomeRegistryEntry entry) {
+			this.entries = source.entries;
+			this.fakes = source.fakes;
+			this.wtf = source.wtf;
+			this.others = new IdentityHashMap<>(source.others);
+			this.others.put(biome, entry);
+		}
+
+		private Snapshot(final Map<String, BiomeRegistryEntry> registry) {
+			int maxId = -1;
+			int minId = 0;
+			for (final BiomeRegistryEntry entry : registry.values()) {
+				final int id = entry.biome.biomeID;
+				if (entry.biome == WTF)
+					continue;
+				maxId = Math.max(maxId, id);
+				minId = Math.min(minId, id);
+			}
+
+			this.entries = new BiomeRegistryEntry[maxId + 1];
+			this.fakes = new BiomeRegistryEntry[-minId + 1];
+			this.wtf = registry.get(WTF.biomeName);
+			this.others = new IdentityHashMap<>();
+
+			final BiomeGenBase[] biomes = BiomeGenBase.getBiomeGenArray();
+			for (final BiomeRegistryEntry entry : registry.values()) {
+				final int id = entry.biome.biomeID;
+				if (entry.biome == WTF)
+					continue;
+				if (id < 0) {
+					this.fakes[-id] = entry;
+				} else {
+					// IDs can collide when mods keep their own biome
+					// lists. Favor what is registered with Minecraft;
+					// the others go in the side table.
+					final BiomeRegistryEntry current = this.entries[id];
+					if (current == null || (id < biomes.length && biomes[id] == entry.biome)) {
+						this.entries[id] = entry;
+						if (current != null)
+							this.others.put(current.biome, current);
+					} else {
+						this.others.put(entry.biome, entry);
+					}
+				}
+			}
+		}
+
+		private BiomeRegistryEntry find(final BiomeGenBase biome) {
+			if (biome == null)
+				return this.wtf;
+			final int id = biome.biomeID;
+			final BiomeRegistryEntry entry;
+			if (id >= 0)
+				entry = id < this.entries.length ? this.entries[id] : null;
+			else
+				entry = -id < this.fakes.length ? this.fakes[-id] : null;
+			return entry != null && entry.biome == biome ? entry : this.others.get(biome);
+		}
+	}
+
 	private static BiomeRegistryEntry get(final BiomeGenBase biome) {
+		final BiomeRegistryEntry entry = snapshot.find(biome);
+		return entry != null ? entry : lookup(biome);
+	}
+
+	private static BiomeRegistryEntry lookup(final BiomeGenBase biome) {
 		synchronized (registry) {
-			BiomeRegistryEntry entry = registry.get(biome == null ? WTF.biomeName : biome.biomeName);
+			// Another thread may have resolved it while this one waited
+			BiomeRegistryEntry entry = snapshot.find(biome);
+			if (entry != null)
+				return entry;
+
+			entry = registry.get(biome == null ? WTF.biomeName : biome.biomeName);
 			if (entry == null) {
 				ModLog.warn("Biome [%s] was not detected during initial scan! Reloading config...", resolveName(biome));
 				initialize();
@@ -269,8 +373,13 @@ public final class BiomeRegistry {
 					ModLog.warn("Still can't find biome [%s]! Explicitly adding at defaults", resolveName(biome));
 					entry = new BiomeRegistryEntry(biome);
 					registry.put(biome.biomeName, entry);
+					snapshot = new Snapshot(registry);
 				}
 			}
+
+			// Remember the answer so the lock is not needed next time
+			if (biome != null && snapshot.find(biome) == null)
+				snapshot = new Snapshot(snapshot, biome, entry);
 			return entry;
 		}
 	}
@@ -303,38 +412,32 @@ public final class BiomeRegistry {
 		return get(biome).fogDensity;
 	}
 
-	public static SoundEffect getSound(final BiomeGenBase biome, final String conditions) {
+	public static SoundEffect getSound(final BiomeGenBase biome, final Conditions conditions) {
 		return get(biome).findSoundMatch(conditions);
 	}
 
-	public static List<SoundEffect> getSounds(final BiomeGenBase biome, final String conditions) {
+	public static List<SoundEffect> getSounds(final BiomeGenBase biome, final Conditions conditions) {
 		return get(biome).findSoundMatches(conditions);
 	}
 
-	public static SoundEffect getSpotSound(final BiomeGenBase biome, final String conditions, final Random random) {
+	public static SoundEffect getSpotSound(final BiomeGenBase biome, final Conditions conditions, final Random random) {
 		final BiomeRegistryEntry e = get(biome);
 		if (e.spotSounds.isEmpty() || random.nextInt(e.spotSoundChance) != 0)
 			return null;
 
-		int totalWeight = 0;
-		final List<SoundEffect> candidates = new ArrayList<>();
-		for (final SoundEffect s : e.spotSounds)
-			if (s.matches(conditions)) {
-				candidates.add(s);
-				totalWeight += s.weight;
-			}
-		if (totalWeight <= 0)
-			return null;
-
-		if (candidates.size() == 1)
-			return candidates.get(0);
-
-		int targetWeight = random.nextInt(totalWeight);
-		int i;
-		for (i = candidates.size(); (targetWeight -= candidates.get(i - 1).weight) >= 0; i--)
-			;
+		if (e.spotSelector == null)
+			e.spotSelector = new SoundSelector(e.spotSounds);
+		return e.spotSelector.select(conditions, random);
+	}
 
-		return candidates.get(i - 1);
+	public static void getSoundNames(final Collection<String> names) {
+		names.add(WATER_DRIP.sound);
+		for (final BiomeRegistryEntry entry : registry.values()) {
+			for (final SoundEffect sound : entry.sounds)
+				names.add(sound.sound);
+			for (final SoundEffect sound : entry.spotSounds)
+				names.add(sound.sound);
+		}
 	}
 
 	private static void processConfig() {
@@ -26,6 +26,7 @@ package org.blockartistry.mod.DynSurround.data;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,17 +43,22 @@ import org.blockartistry.mod.DynSurround.client.sound.SoundEffect.SoundType;
 import org.blockartistry.mod.DynSurround.data.config.BlockConfig;
 import org.blockartistry.mod.DynSurround.data.config.BlockConfig.Effect;
 import org.blockartistry.mod.DynSurround.data.config.SoundConfig;
+import org.blockartistry.mod.DynSurround.event.RegistryReloadEvent;
 
 import cpw.mods.fml.common.Loader;
 import cpw.mods.fml.common.ModContainer;
 import cpw.mods.fml.common.registry.GameData;
 import net.minecraft.block.Block;
 import net.minecraft.init.Blocks;
+import net.minecraftforge.common.MinecraftForge;
 
 public final class BlockRegistry {
 
 	private static final Map<Block, Entry> registry = new IdentityHashMap<>();
 
+	// The resolved registry indexed by block id
+	private static Entry[] entries = new Entry[0];
+
 	private static final class Entry implements Comparable<Entry> {
 		public final Block block;
 		public int chance = 100;
@@ -60,11 +66,18 @@ public final class BlockRegistry {
 		public final List<SoundEffect> sounds = new ArrayList<>();
 		public final List<SoundEffect> stepSounds = new ArrayList<>();
 		public final List<BlockEffect> effects = new ArrayList<>();
+		public SoundSelector soundSelector;
+		public SoundSelector stepSelector;
 
 		public Entry(final Block block) {
 			this.block = block;
 		}
 
+		public void compile() {
+			this.soundSelector = new SoundSelector(this.sounds);
+			this.stepSelector = new SoundSelector(this.stepSounds);
+		}
+
 		@Override
 		public String toString() {
 			final StringBuilder builder = new StringBuilder();
@@ -107,6 +120,19 @@ public final class BlockRegistry {
 		registry.clear();
 		processConfig();
 
+		int maxId = -1;
+		for (final Entry entry : registry.values()) {
+			entry.compile();
+			maxId = Math.max(maxId, Block.getIdFromBlock(entry.block));
+		}
+		final Entry[] table = new Entry[maxId + 1];
+		for (final Entry entry : registry.values()) {
+			final int id = Block.getIdFromBlock(entry.block);
+			if (id >= 0)
+				table[id] = entry;
+		}
+		entries = table;
+
 		if (ModOptions.enableDebugLogging) {
 			ModLog.info("*** BLOCK REGISTRY ***");
             registry
@@ -116,48 +142,61 @@ public final class BlockRegistry {
                 .forEach(entry -> ModLog.info(entry.toString()))
             ;
 		}
-	}
 
-	public static List<BlockEffect> getEffects(final Block block) {
-		final Entry entry = registry.get(block);
-		return entry != null ? entry.effects : null;
+		MinecraftForge.EVENT_BUS.post(new RegistryReloadEvent.Block());
 	}
 
-	private static SoundEffect getRandomSound(final List<SoundEffect> list, final Random random,
-			final String conditions) {
-		int totalWeight = 0;
-		final List<SoundEffect> candidates = new ArrayList<>();
-		for (final SoundEffect s : list)
-			if (s.matches(conditions)) {
-				candidates.add(s);
-				totalWeight += s.weight;
-			}
-		if (totalWeight <= 0)
-			return null;
+	/*
+	 * Blocks that have effects or random sounds; step sounds are not
+	 * counted since they are only played under the player.
+	 */
+	public static List<Block> getEffectBlocks() {
+		final List<Block> result = new ArrayList<>();
+		for (final Entry entry : registry.values())
+			if (!entry.effects.isEmpty() || !entry.sounds.isEmpty())
+				result.add(entry.block);
+		return result;
+	}
 
-		if (candidates.size() == 1)
-			return candidates.get(0);
+	private static Entry get(final int id) {
+		final Entry[] table = entries;
+		return id >= 0 && id < table.length ? table[id] : null;
+	}
 
-		int targetWeight = random.nextInt(totalWeight);
-		int i;
-		for (i = candidates.size(); (targetWeight -= candidates.get(i - 1).weight) >= 0; i--)
-			;
+	private static Entry get(final Block block) {
+		return get(Block.getIdFromBlock(block));
+	}
 
-		return candidates.get(i - 1);
+	/*
+	 * Lookups by block id, for callers that read the id straight from the
+	 * chunk data and so skip the trip through the block registry.
+	 */
+	public static List<BlockEffect> getEffects(final int id) {
+		final Entry entry = get(id);
+		return entry != null ? entry.effects : null;
 	}
 
-	public static SoundEffect getSound(final Block block, final Random random, final String conditions) {
-		final Entry entry = registry.get(block);
-		if (entry == null || entry.sounds.isEmpty() || random.nextInt(entry.chance) != 0)
+	public static SoundEffect getSound(final int id, final Random random, final Conditions conditions) {
+		final Entry entry = get(id);
+		if (entry == null || entry.soundSelector.isEmpty() || random.nextInt(entry.chance) != 0)
 			return null;
-		return getRandomSound(entry.sounds, random, conditions);
+		return entry.soundSelector.select(conditions, random);
 	}
 
-	public static SoundEffect getStepSound(final Block block, final Random random, final String conditions) {
-		final Entry entry = registry.get(block);
-		if (entry == null || entry.stepSounds.isEmpty() || random.nextInt(entry.stepChance) != 0)
+	public static SoundEffect getStepSound(final Block block, final Random random, final Conditions conditions) {
+		final Entry entry = get(block);
+		if (entry == null || entry.stepSelector.isEmpty() || random.nextInt(entry.stepChance) != 0)
 			return null;
-		return getRandomSound(entry.stepSounds, random, conditions);
+		return entry.stepSelector.select(conditions, random);
+	}
+
+	public static void getSoundNames(final Collection<String> names) {
+		for (final Entry entry : registry.values()) {
+			for (final SoundEffect sound : entry.sounds)
+				names.add(sound.sound);
+			for (final SoundEffect sound : entry.stepSounds)
+				names.add(sound.sound);
+		}
 	}
 
 	private static void processConfig() {
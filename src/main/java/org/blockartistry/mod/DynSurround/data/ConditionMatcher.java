@@ -0,0 +1,158 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.data;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.blockartistry.mod.DynSurround.ModLog;
+
+/*
+ * Condition expressions from the sound configs are regular expressions
+ * that are matched against the condition string.  The vast majority of
+ * them follow a simple form:
+ *
+ *   (?i)(?!.*#token#.*|.*#token#.*)(.*#token#.*#token#.*)
+ *
+ * which boils down to "none of these tokens and all of those tokens".
+ * Those get compiled into bit masks that are evaluated against the
+ * condition bit vector.  Anything else falls back to the regex.  Note
+ * that for compiled expressions the order of the required tokens is not
+ * significant.
+ */
+public abstract class ConditionMatcher {
+
+	private static final String CASE_INSENSITIVE = "(?i)";
+	private static final String TOKEN = "[\\w\\- ]+";
+	private static final Pattern NEGATIVE = Pattern.compile("^\\(\\?!([^()]*)\\)");
+	private static final Pattern NEGATIVE_TERM = Pattern.compile("\\.\\*#(" + TOKEN + ")#\\.\\*");
+	private static final Pattern POSITIVE = Pattern.compile("\\.\\*(?:#" + TOKEN + "#\\.\\*)*");
+	private static final Pattern POSITIVE_TERM = Pattern.compile("#(" + TOKEN + ")#");
+
+	public static final ConditionMatcher ALWAYS = new ConditionMatcher() {
+		@Override
+		public boolean matches(final Conditions conditions) {
+			return true;
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return true;
+		}
+	};
+
+	public abstract boolean matches(final Conditions conditions);
+
+	public abstract boolean isCompiled();
+
+	public static ConditionMatcher compile(final String expression) {
+		if (StringUtils.isEmpty(expression) || ".*".equals(expression))
+			return ALWAYS;
+
+		final ConditionMatcher matcher = tryCompile(expression);
+		if (matcher != null)
+			return matcher;
+
+		ModLog.debug("Condition expression '%s' is evaluated as a regex", expression);
+		return new RegexMatcher(Pattern.compile(expression));
+	}
+
+	private static ConditionMatcher tryCompile(final String expression) {
+		if (!expression.startsWith(CASE_INSENSITIVE))
+			return null;
+
+		String expr = expression.substring(CASE_INSENSITIVE.length());
+
+		// Peel off the negative lookaheads
+		long[] excluded = new long[0];
+		Matcher m;
+		while ((m = NEGATIVE.matcher(expr)).find()) {
+			for (final String term : StringUtils.split(m.group(1), '|')) {
+				final Matcher t = NEGATIVE_TERM.matcher(term);
+				if (!t.matches())
+					return null;
+				excluded = Conditions.setBit(excluded, Conditions.intern(t.group(1)));
+			}
+			expr = expr.substring(m.end());
+		}
+
+		// What is left is the body. It can be wrapped in parens.
+		if (expr.startsWith("(") && expr.endsWith(")"))
+			expr = expr.substring(1, expr.length() - 1);
+		if (!POSITIVE.matcher(expr).matches())
+			return null;
+
+		long[] required = new long[0];
+		final Matcher t = POSITIVE_TERM.matcher(expr);
+		while (t.find()) {
+			required = Conditions.setBit(required, Conditions.intern(t.group(1)));
+		}
+
+		if (required.length == 0 && excluded.length == 0)
+			return ALWAYS;
+
+		return new BitMatcher(required, excluded);
+	}
+
+	private static final class BitMatcher extends ConditionMatcher {
+
+		private final long[] required;
+		private final long[] excluded;
+
+		public BitMatcher(final long[] required, final long[] excluded) {
+			this.required = required;
+			this.excluded = excluded;
+		}
+
+		@Override
+		public boolean matches(final Conditions conditions) {
+			return conditions.containsAll(this.required) && !conditions.containsAny(this.excluded);
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return true;
+		}
+	}
+
+	private static final class RegexMatcher extends ConditionMatcher {
+
+		private final Pattern pattern;
+
+		public RegexMatcher(final Pattern pattern) {
+			this.pattern = pattern;
+		}
+
+		@Override
+		public boolean matches(final Conditions conditions) {
+			return this.pattern.matcher(conditions.getText()).matches();
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/*
+ * Immutable snapshot of the environmental conditions of the player as
+ * both the classic "#token#token#" string and a bit vector of interned
+ * tokens.  The string is retained for diagnostics and for the condition
+ * expressions that cannot be compiled; everything else evaluates against
+ * the bits.  A new snapshot is only created when the tokens change, so
+ * consumers can tell whether anything changed by comparing references.
+ */
+public final class Conditions {
+
+	private static final char CONDITION_SEPARATOR = '#';
+	private static final int END = -1;
+
+	public static final Conditions EMPTY = new Conditions("", new long[0], new int[0], new String[0]);
+
+	// Token interning. Tokens are case folded because the condition
+	// expressions that get compiled are case insensitive.
+	private static final TObjectIntHashMap<String> tokens = new TObjectIntHashMap<>(64, 0.5F, -1);
+	private static final TObjectIntHashMap<String> exact = new TObjectIntHashMap<>(64, 0.5F, -1);
+
+	public static synchronized int intern(final String token) {
+		int idx = exact.get(token);
+		if (idx < 0) {
+			final String folded = token.toLowerCase();
+			idx = tokens.get(folded);
+			if (idx < 0) {
+				idx = tokens.size();
+				tokens.put(folded, idx);
+			}
+			exact.put(token, idx);
+		}
+		return idx;
+	}
+
+	public static synchronized int tokenCount() {
+		return tokens.size();
+	}
+
+	private final String text;
+	private final long[] bits;
+	private final int[] sequence;
+	private final String[] names;
+
+	private Conditions(final String text, final long[] bits, final int[] sequence, final String[] names) {
+		this.text = text;
+		this.bits = bits;
+		this.sequence = sequence;
+		this.names = names;
+	}
+
+	public boolean isSet(final int token) {
+		final int word = token >>> 6;
+		return word < this.bits.length && (this.bits[word] & (1L << token)) != 0;
+	}
+
+	/*
+	 * Returns true if all of the bits in the mask are set.
+	 */
+	public boolean containsAll(final long[] mask) {
+		for (int i = 0; i < mask.length; i++) {
+			final long w = i < this.bits.length ? this.bits[i] : 0;
+			if ((w & mask[i]) != mask[i])
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Returns true if any of the bits in the mask are set.
+	 */
+	public boolean containsAny(final long[] mask) {
+		final int len = Math.min(mask.length, this.bits.length);
+		for (int i = 0; i < len; i++)
+			if ((this.bits[i] & mask[i]) != 0)
+				return true;
+		return false;
+	}
+
+	public String getText() {
+		return this.text;
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+
+	public static long[] setBit(long[] bits, final int token) {
+		final int word = token >>> 6;
+		if (word >= bits.length)
+			bits = Arrays.copyOf(bits, word + 1);
+		bits[word] |= 1L << token;
+		return bits;
+	}
+
+	/*
+	 * Accumulates condition tokens.  A builder is intended to be reused
+	 * tick after tick; it does not allocate unless the tokens differ from
+	 * the snapshot it is compared against.  The string form that is
+	 * produced is identical to what the regex based configuration expects.
+	 */
+	public static final class Builder {
+
+		private int[] sequence = new int[32];
+		private String[] names = new String[32];
+		private int count;
+
+		public Builder reset() {
+			this.count = 0;
+			return this;
+		}
+
+		private void append(final int token, final String name) {
+			if (this.count == this.sequence.length) {
+				this.sequence = Arrays.copyOf(this.sequence, this.count * 2);
+				this.names = Arrays.copyOf(this.names, this.count * 2);
+			}
+			this.sequence[this.count] = token;
+			this.names[this.count] = name;
+			this.count++;
+		}
+
+		public Builder add(final String token) {
+			append(intern(token), token);
+			return this;
+		}
+
+		public Builder end() {
+			append(END, null);
+			return this;
+		}
+
+		private boolean sameAs(final Conditions conditions) {
+			if (conditions == null || conditions.sequence.length != this.count)
+				return false;
+			for (int i = 0; i < this.count; i++)
+				if (conditions.sequence[i] != this.sequence[i] || !Objects.equals(conditions.names[i], this.names[i]))
+					return false;
+			return true;
+		}
+
+		/*
+		 * Returns the previous snapshot if nothing changed, otherwise
+		 * a new snapshot.
+		 */
+		public Conditions build(final Conditions previous) {
+			if (sameAs(previous))
+				return previous;
+
+			final StringBuilder builder = new StringBuilder(128);
+			long[] bits = new long[1];
+			for (int i = 0; i < this.count; i++) {
+				if (this.sequence[i] != END) {
+					builder.append(CONDITION_SEPARATOR).append(this.names[i]);
+					bits = setBit(bits, this.sequence[i]);
+				} else {
+					builder.append(CONDITION_SEPARATOR);
+				}
+			}
+
+			return new Conditions(builder.toString(), bits, Arrays.copyOf(this.sequence, this.count),
+					Arrays.copyOf(this.names, this.count));
+		}
+
+		public Conditions build() {
+			return build(null);
+		}
+	}
+}
@@ -31,7 +31,6 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldProvider;
 import net.minecraft.world.WorldType;
-import net.minecraftforge.common.DimensionManager;
 import org.blockartistry.mod.DynSurround.ModLog;
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.Module;
@@ -64,6 +63,11 @@ public final class DimensionRegistry implements Comparable<DimensionRegistry> {
 	private Boolean hasAuroras;
 	private Boolean hasWeather;
 
+	// Seasons don't change during a day so the lookup is
+	// cached by the day it was made.
+	private long seasonDay = Long.MIN_VALUE;
+	private String season = SEASON_NOT_AVAILABLE;
+
 	public static void initialize() {
 		try {
 			process(DimensionConfig.load("dimensions"));
@@ -215,7 +219,16 @@ public final class DimensionRegistry implements Comparable<DimensionRegistry> {
 		return this.hasWeather;
 	}
 
-	public String getSeason() {
+	// The world is the one the caller has in hand; on a multiplayer client
+	// DimensionManager has no worlds to give out.
+	public String getSeason(final World world) {
+		final String result = lookupSeason(world);
+		return result == null ? SEASON_NOT_AVAILABLE : result;
+	}
+
+	// Returns null when the answer may change once the calendar can be
+	// reached, such as right after the world loads.
+	private String lookupSeason(final World world) {
         //TODO: lotr shire reckoning -> CalenderAPI bridge in MistLotrTweaks
         if (Module.LOTR && this.name.equals("MiddleEarth") && !ModOptions.useNoLotrProxy) {
             return Module.LOTR_PROXY.getSeason();
@@ -228,13 +241,9 @@ public final class DimensionRegistry implements Comparable<DimensionRegistry> {
 		if (provider == null)
 			return SEASON_NOT_AVAILABLE;
 
-		final World world = DimensionManager.getWorld(this.dimensionId);
-		if (world == null)
-			return SEASON_NOT_AVAILABLE;
-
 		final ICalendarProvider calendar = CalendarAPI.getCalendarInstance(world);
 		if (calendar == null)
-			return SEASON_NOT_AVAILABLE;
+			return null;
 
 		return provider.getSeason(calendar).getName();
 	}
@@ -290,27 +299,36 @@ public final class DimensionRegistry implements Comparable<DimensionRegistry> {
 	}
 
 	public static String getSeason(final World world) {
-		return getData(world).getSeason();
+		final DimensionRegistry data = getData(world);
+		final long day = world.getWorldTime() / 24000L;
+		if (data.seasonDay != day) {
+			// A dimension without a season provider has its answer; only
+			// an unreachable calendar is asked again.
+			final String result = data.lookupSeason(world);
+			if (result == null) {
+				data.season = SEASON_NOT_AVAILABLE;
+			} else {
+				data.season = result;
+				data.seasonDay = day;
+			}
+		}
+		return data.season;
 	}
 
 	private static final String CONDITION_TOKEN_RAINING = "raining";
 	private static final String CONDITION_TOKEN_DAY = "day";
 	private static final String CONDITION_TOKEN_NIGHT = "night";
-	private static final char CONDITION_SEPARATOR = '#';
 
-	public static String getConditions(final World world) {
-		final StringBuilder builder = new StringBuilder();
-		builder.append(CONDITION_SEPARATOR);
+	public static void getConditions(final World world, final Conditions.Builder builder) {
 		if (DiurnalUtils.isDaytime(world))
-			builder.append(CONDITION_TOKEN_DAY);
+			builder.add(CONDITION_TOKEN_DAY);
 		else
-			builder.append(CONDITION_TOKEN_NIGHT);
-		builder.append(CONDITION_SEPARATOR).append(world.provider.getDimensionName());
+			builder.add(CONDITION_TOKEN_NIGHT);
+		builder.add(world.provider.getDimensionName());
 		if (world.getRainStrength(1.0F) > 0.0F)
-			builder.append(CONDITION_SEPARATOR).append(CONDITION_TOKEN_RAINING);
-		builder.append(CONDITION_SEPARATOR).append(getSeason(world));
-		builder.append(CONDITION_SEPARATOR);
-		return builder.toString();
+			builder.add(CONDITION_TOKEN_RAINING);
+		builder.add(getSeason(world));
+		builder.end();
 	}
 
 	@Override
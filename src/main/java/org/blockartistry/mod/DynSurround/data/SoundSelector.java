@@ -0,0 +1,138 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.data;
+
+import java.util.List;
+import java.util.Random;
+
+import org.blockartistry.mod.DynSurround.client.sound.SoundEffect;
+
+/*
+ * Weighted random choice among a fixed list of sounds, limited to those
+ * that match the current conditions.  The matching sounds are compiled
+ * into a Walker alias table so that a choice is two random numbers and
+ * an array read.  Conditions snapshots are only replaced when something
+ * changes, so the table is rebuilt when the snapshot reference differs
+ * from the one it was built for.  All storage is allocated up front;
+ * neither a choice nor a rebuild allocates.
+ *
+ * Not thread safe; intended for use from the client thread.
+ */
+final class SoundSelector {
+
+	private final SoundEffect[] sounds;
+
+	private Conditions conditions;
+	private int count;
+	private final SoundEffect[] candidates;
+	private final float[] probability;
+	private final int[] alias;
+	private final float[] scaled;
+	private final int[] small;
+	private final int[] large;
+
+	public SoundSelector(final List<SoundEffect> sounds) {
+		this.sounds = sounds.toArray(new SoundEffect[0]);
+		final int n = this.sounds.length;
+		this.candidates = new SoundEffect[n];
+		this.probability = new float[n];
+		this.alias = new int[n];
+		this.scaled = new float[n];
+		this.small = new int[n];
+		this.large = new int[n];
+	}
+
+	public boolean isEmpty() {
+		return this.sounds.length == 0;
+	}
+
+	private void build(final Conditions conditions) {
+		this.conditions = conditions;
+		this.count = 0;
+
+		int totalWeight = 0;
+		for (final SoundEffect s : this.sounds)
+			if (s.weight > 0 && s.matches(conditions)) {
+				this.candidates[this.count++] = s;
+				totalWeight += s.weight;
+			}
+
+		final int n = this.count;
+		if (n < 2)
+			return;
+
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < n; i++) {
+			this.scaled[i] = (float) this.candidates[i].weight * n / totalWeight;
+			if (this.scaled[i] < 1.0F)
+				this.small[smallCount++] = i;
+			else
+				this.large[largeCount++] = i;
+		}
+
+		while (smallCount > 0 && largeCount > 0) {
+			final int s = this.small[--smallCount];
+			final int l = this.large[--largeCount];
+			this.probability[s] = this.scaled[s];
+			this.alias[s] = l;
+			this.scaled[l] = (this.scaled[l] + this.scaled[s]) - 1.0F;
+			if (this.scaled[l] < 1.0F)
+				this.small[smallCount++] = l;
+			else
+				this.large[largeCount++] = l;
+		}
+
+		// Whatever is left is full up to rounding
+		while (largeCount > 0) {
+			final int l = this.large[--largeCount];
+			this.probability[l] = 1.0F;
+			this.alias[l] = l;
+		}
+		while (smallCount > 0) {
+			final int s = this.small[--smallCount];
+			this.probability[s] = 1.0F;
+			this.alias[s] = s;
+		}
+	}
+
+	/*
+	 * Picks one of the sounds that match the conditions, or null if none
+	 * do.
+	 */
+	public SoundEffect select(final Conditions conditions, final Random random) {
+		if (conditions != this.conditions)
+			build(conditions);
+
+		switch (this.count) {
+		case 0:
+			return null;
+		case 1:
+			return this.candidates[0];
+		default:
+			final int i = random.nextInt(this.count);
+			return random.nextFloat() < this.probability[i] ? this.candidates[i] : this.candidates[this.alias[i]];
+		}
+	}
+}
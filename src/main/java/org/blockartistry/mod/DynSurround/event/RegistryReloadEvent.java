@@ -32,4 +32,12 @@ public class RegistryReloadEvent extends Event {
 
 	}
 
+	public static class Acoustics extends RegistryReloadEvent {
+
+	}
+
+	public static class Block extends RegistryReloadEvent {
+
+	}
+
 }
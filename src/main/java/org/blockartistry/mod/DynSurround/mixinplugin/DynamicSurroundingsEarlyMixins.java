@@ -8,7 +8,6 @@ import net.minecraftforge.common.config.Configuration;
 import org.blockartistry.mod.DynSurround.ModLog;
 import org.blockartistry.mod.DynSurround.ModOptions;
 import org.blockartistry.mod.DynSurround.Module;
-import org.blockartistry.mod.DynSurround.asm.Transformer;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -21,7 +20,6 @@ import java.util.Set;
  */
 @IFMLLoadingPlugin.Name("DynamicSurroundingsEarlyMixins")
 @IFMLLoadingPlugin.MCVersion("1.7.10")
-@IFMLLoadingPlugin.TransformerExclusions({"org.blockartistry.mod.DynSurround.asm."})
 @IFMLLoadingPlugin.SortingIndex(10001)
 public class DynamicSurroundingsEarlyMixins implements IFMLLoadingPlugin, IEarlyMixinLoader {
 
@@ -49,6 +47,8 @@ public class DynamicSurroundingsEarlyMixins implements IFMLLoadingPlugin, IEarly
             mixins.add("MixinPaulsCodeSource");
             mixins.add("MixinPaulsCodeSoundLibrary");
             mixins.add("MixinPaulsCodeStreamThread");
+            mixins.add("MixinPaulsCodeLibraryLWJGLOpenAL");
+            mixins.add("MixinPaulsCodeSourceLWJGLOpenAL");
         }
 
         if (!ModOptions.disableWeatherEffects) {
@@ -62,7 +62,7 @@ public class DynamicSurroundingsEarlyMixins implements IFMLLoadingPlugin, IEarly
 
     @Override
     public String[] getASMTransformerClass() {
-        return new String[]{Transformer.class.getName()};
+        return null;
     }
 
     @Override
@@ -0,0 +1,39 @@
+package org.blockartistry.mod.DynSurround.mixins.early;
+
+import org.blockartistry.mod.DynSurround.client.sound.SourcePool;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import paulscode.sound.FilenameURL;
+import paulscode.sound.SoundBuffer;
+import paulscode.sound.libraries.LibraryLWJGLOpenAL;
+import paulscode.sound.libraries.SourceLWJGLOpenAL;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Hands out recycled sources for non-streaming sounds instead of building a
+ * new one for every play.
+ */
+@Mixin(value = LibraryLWJGLOpenAL.class, remap = false)
+public abstract class MixinPaulsCodeLibraryLWJGLOpenAL {
+
+    @Redirect(method = "newSource(ZZZLjava/lang/String;Lpaulscode/sound/FilenameURL;FFFIF)V",
+        at = @At(value = "NEW", target = "paulscode/sound/libraries/SourceLWJGLOpenAL", remap = false),
+        remap = false)
+    private SourceLWJGLOpenAL obtainSource(FloatBuffer listenerPosition, IntBuffer myBuffer, boolean priority,
+                                           boolean toStream, boolean toLoop, String sourcename,
+                                           FilenameURL filenameURL, SoundBuffer soundBuffer, float x, float y,
+                                           float z, int attModel, float distOrRoll, boolean temporary) {
+        return SourcePool.obtain(listenerPosition, myBuffer, priority, toStream, toLoop, sourcename, filenameURL,
+            soundBuffer, x, y, z, attModel, distOrRoll, temporary);
+    }
+
+    @Inject(method = "cleanup()V", at = @At("HEAD"), remap = false)
+    private void releasePool(CallbackInfo ci) {
+        SourcePool.clear();
+    }
+}
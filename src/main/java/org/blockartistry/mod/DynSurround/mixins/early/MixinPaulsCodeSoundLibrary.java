@@ -1,5 +1,6 @@
 package org.blockartistry.mod.DynSurround.mixins.early;
 
+import org.blockartistry.mod.DynSurround.client.sound.SourcePool;
 import org.blockartistry.mod.DynSurround.mixinHelp.SourceWithRemove;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -18,7 +19,7 @@ public abstract class MixinPaulsCodeSoundLibrary {
         if (source.toStream) {
             ((SourceWithRemove) source).dynamicSurroundings$setRemoved(true);
         }
-        else {
+        else if (!SourcePool.recycle(source)) {
             source.cleanup();
         }
     }
@@ -0,0 +1,39 @@
+package org.blockartistry.mod.DynSurround.mixins.early;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import paulscode.sound.Source;
+import paulscode.sound.libraries.SourceLWJGLOpenAL;
+
+import java.nio.FloatBuffer;
+
+/**
+ * changeSource() resets a source by allocating new direct buffers for its
+ * position and velocity. Refill the ones the source already has so that
+ * sources recycled by the pool keep their buffers.
+ */
+@Mixin(value = SourceLWJGLOpenAL.class, remap = false)
+public abstract class MixinPaulsCodeSourceLWJGLOpenAL {
+
+    @Shadow
+    private FloatBuffer sourcePosition;
+
+    @Shadow
+    private FloatBuffer sourceVelocity;
+
+    @Inject(method = "resetALInformation()V", at = @At("HEAD"), cancellable = true, remap = false)
+    private void reuseBuffers(CallbackInfo ci) {
+        // The constructor allocates them the first time
+        if (sourcePosition == null || sourceVelocity == null)
+            return;
+
+        final Source source = (Source) (Object) this;
+        sourcePosition.put(0, source.position.x).put(1, source.position.y).put(2, source.position.z);
+        sourceVelocity.put(0, source.velocity.x).put(1, source.velocity.y).put(2, source.velocity.z);
+        source.positionChanged();
+        ci.cancel();
+    }
+}
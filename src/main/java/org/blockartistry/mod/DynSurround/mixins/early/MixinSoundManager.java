@@ -5,11 +5,13 @@ import net.minecraft.client.audio.SoundCategory;
 import net.minecraft.client.audio.SoundManager;
 import net.minecraft.client.audio.SoundPoolEntry;
 import net.minecraft.util.ResourceLocation;
+import org.blockartistry.mod.DynSurround.client.sound.SoundCommandQueue;
 import org.blockartistry.mod.DynSurround.client.sound.cache.SoundCache;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
 import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
@@ -60,13 +62,60 @@ public abstract class MixinSoundManager {
         return null;
     }
 
-    @Inject(
-        method = "playSound(Lnet/minecraft/client/audio/ISound;)V",
+    /**
+     * Plays and stops from threads other than the client thread are queued
+     * and run at the start of the next update instead of racing the client
+     * thread through the manager's maps.
+     */
+    @Inject(method = "playSound(Lnet/minecraft/client/audio/ISound;)V", at = @At("HEAD"), cancellable = true)
+    private void deferPlay(ISound p_148611_1_, CallbackInfo ci) {
+        if (SoundCommandQueue.deferPlay((SoundManager) (Object) this, p_148611_1_))
+            ci.cancel();
+    }
+
+    @Inject(method = "stopSound(Lnet/minecraft/client/audio/ISound;)V", at = @At("HEAD"), cancellable = true)
+    private void deferStop(ISound p_148602_1_, CallbackInfo ci) {
+        if (SoundCommandQueue.deferStop((SoundManager) (Object) this, p_148602_1_))
+            ci.cancel();
+    }
+
+    /**
+     * Runs the queued commands and flushes the sound library's command
+     * queue once per tick rather than after every play.
+     */
+    @Inject(method = "updateAllSounds", at = @At("HEAD"))
+    private void drainCommands(CallbackInfo ci) {
+        SoundCommandQueue.drain((SoundManager) (Object) this);
+    }
+
+    /**
+     * Lifecycle callbacks so emitters know whether their sound is
+     * still in the sound system without scanning the playing maps.
+     */
+    @Inject(method = "playSound(Lnet/minecraft/client/audio/ISound;)V", at = @At("RETURN"))
+    private void soundStarted(ISound p_148611_1_, CallbackInfo ci) {
+        org.blockartistry.mod.DynSurround.client.sound.SoundManager.onSoundStarted(p_148611_1_);
+    }
+
+    @ModifyArg(method = "updateAllSounds",
         at = @At(value = "INVOKE",
-            target = "Lnet/minecraft/client/audio/SoundManager$SoundSystemStarterThread;play(Ljava/lang/String;)V",
-            shift = At.Shift.AFTER)
-        , remap = false)
-    private void flushSound(ISound p_148611_1_, CallbackInfo ci) {
-        org.blockartistry.mod.DynSurround.client.sound.SoundManager.flushSound();
+            target = "Lnet/minecraft/client/audio/SoundManager$SoundSystemStarterThread;removeSource(Ljava/lang/String;)V",
+            remap = false))
+    private String soundRemoved(String source) {
+        org.blockartistry.mod.DynSurround.client.sound.SoundManager.onSoundRemoved(source);
+        return source;
+    }
+
+    /**
+     * Keeps the cached category gains used by getNormalizedVolume current.
+     */
+    @Inject(method = "setSoundCategoryVolume", at = @At("HEAD"))
+    private void categoryVolumeChanged(SoundCategory p_148601_1_, float p_148601_2_, CallbackInfo ci) {
+        org.blockartistry.mod.DynSurround.client.sound.SoundManager.setCategoryVolume(p_148601_1_, p_148601_2_);
+    }
+
+    @Inject(method = "stopAllSounds", at = @At("HEAD"))
+    private void allSoundsStopped(CallbackInfo ci) {
+        org.blockartistry.mod.DynSurround.client.sound.SoundManager.onAllSoundsStopped();
     }
 }
@@ -34,7 +34,6 @@ import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.block.material.Material;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.MathHelper;
-import net.minecraft.world.World;
 import net.minecraft.world.biome.BiomeGenBase;
 
 public final class PlayerUtils {
@@ -84,28 +83,6 @@ public final class PlayerUtils {
 		return player.getEntityWorld().provider.dimensionId;
 	}
 
-	private static final int RANGE = 3;
-	private static final int AREA = (RANGE * 2 + 1) * (RANGE * 2 + 1);
-
-	private static float ceilingCoverageRatio(final EntityPlayer entity) {
-		final World world = entity.getEntityWorld();
-		final int targetY = MathHelper.floor_double(entity.posY);
-		final int baseX = MathHelper.floor_double(entity.posX);
-		final int baseZ = MathHelper.floor_double(entity.posZ);
-		int seeSky = 0;
-		for (int x = -RANGE; x <= RANGE; x++)
-			for (int z = -RANGE; z <= RANGE; z++) {
-				final int y = world.getTopSolidOrLiquidBlock(baseX + x, baseZ + z);
-				if ((y - targetY) < 2)
-					++seeSky;
-			}
-		return 1.0F - ((float) seeSky / AREA);
-	}
-
-	public static boolean isReallyInside(final EntityPlayer entity) {
-		return ceilingCoverageRatio(entity) > 0.42F;
-	}
-
 	@SideOnly(Side.CLIENT)
 	public static int getClientPlayerDimension() {
 		return getPlayerDimension(FMLClientHandler.instance().getClient().thePlayer);
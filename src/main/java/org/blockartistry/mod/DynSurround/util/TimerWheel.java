@@ -0,0 +1,249 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.blockartistry.mod.DynSurround.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel. Time is divided into slots a few milliseconds wide,
+ * several to a client tick, and a timer hangs off the slot its deadline falls
+ * into. Scheduling, cancelling and expiring a timer are all constant time;
+ * advancing the wheel only visits the slots that have elapsed since the last
+ * call.
+ *
+ * Timers carry a small group number so that everything a subsystem has
+ * scheduled can be dropped at once, such as when the player changes worlds.
+ *
+ * Not thread safe - the wheel is meant to be driven from the client thread.
+ */
+public final class TimerWheel {
+
+	public static final int MAX_GROUPS = 8;
+
+	/**
+	 * A scheduled unit of work. A timer can be scheduled on only one wheel at a
+	 * time; expire() is called once when its deadline passes unless it is
+	 * cancelled first.
+	 */
+	public static abstract class Timer {
+
+		private final int group;
+		private TimerWheel wheel;
+		private Timer prev;
+		private Timer next;
+		private long deadline;
+
+		public Timer(final int group) {
+			if (group < 0 || group >= MAX_GROUPS)
+				throw new IllegalArgumentException("Invalid timer group " + group);
+			this.group = group;
+		}
+
+		public int getGroup() {
+			return this.group;
+		}
+
+		public boolean isScheduled() {
+			return this.wheel != null;
+		}
+
+		public boolean cancel() {
+			if (this.wheel == null)
+				return false;
+			final TimerWheel owner = this.wheel;
+			owner.unlink(this);
+			owner.cancelled++;
+			return true;
+		}
+
+		protected abstract void expire();
+	}
+
+	private final long slotMillis;
+	private final int mask;
+	private final Timer[] slots;
+	private final int[] depth = new int[MAX_GROUPS];
+
+	// Next slot number to be processed, in absolute slot time
+	private long cursor = Long.MIN_VALUE;
+	private int size;
+	private int peak;
+	private long expired;
+	private long cancelled;
+
+	/**
+	 * @param slotMillis
+	 *            Width of a slot in milliseconds
+	 * @param slotCount
+	 *            Number of slots; rounded up to a power of 2
+	 */
+	public TimerWheel(final int slotMillis, final int slotCount) {
+		int count = 1;
+		while (count < slotCount)
+			count <<= 1;
+		this.slotMillis = slotMillis;
+		this.mask = count - 1;
+		this.slots = new Timer[count];
+	}
+
+	/**
+	 * Schedules the timer to expire delayMillis after the time given.
+	 * Rescheduling a timer that is already pending moves it.
+	 */
+	public void schedule(final Timer timer, final long now, final long delayMillis) {
+		if (timer.wheel != null)
+			timer.wheel.unlink(timer);
+
+		if (this.cursor == Long.MIN_VALUE)
+			this.cursor = now / this.slotMillis;
+
+		// Never land in a slot that has already been processed,
+		// otherwise the timer would sit a full revolution.
+		timer.deadline = Math.max((now + Math.max(delayMillis, 0L)) / this.slotMillis, this.cursor);
+
+		final int idx = (int) (timer.deadline & this.mask);
+		timer.wheel = this;
+		timer.prev = null;
+		timer.next = this.slots[idx];
+		if (timer.next != null)
+			timer.next.prev = timer;
+		this.slots[idx] = timer;
+
+		this.depth[timer.group]++;
+		if (++this.size > this.peak)
+			this.peak = this.size;
+	}
+
+	/**
+	 * Expires every timer whose deadline is at or before the time given.
+	 * Timers may be scheduled or cancelled from within expire().
+	 */
+	public void advance(final long now) {
+		final long target = now / this.slotMillis;
+		if (this.cursor == Long.MIN_VALUE || target < this.cursor) {
+			if (this.cursor == Long.MIN_VALUE)
+				this.cursor = target;
+			return;
+		}
+
+		// If more than a revolution has gone by every slot only
+		// needs to be visited once.
+		long s = this.cursor;
+		if (target - s > this.mask)
+			s = target - this.mask;
+
+		for (; s <= target; s++) {
+			this.cursor = s + 1;
+			if (this.size == 0)
+				continue;
+
+			// expire() can reshape the slot so start over from the
+			// head after each one. Timers left behind belong to a
+			// later revolution and are rare.
+			final int idx = (int) (s & this.mask);
+			Timer t = this.slots[idx];
+			while (t != null) {
+				if (t.deadline <= s) {
+					unlink(t);
+					this.expired++;
+					t.expire();
+					t = this.slots[idx];
+				} else {
+					t = t.next;
+				}
+			}
+		}
+		this.cursor = target + 1;
+	}
+
+	/**
+	 * Cancels all timers in the group.
+	 */
+	public void cancel(final int group) {
+		if (this.depth[group] == 0)
+			return;
+		for (int i = 0; i < this.slots.length; i++) {
+			Timer t = this.slots[i];
+			while (t != null) {
+				final Timer next = t.next;
+				if (t.group == group)
+					t.cancel();
+				t = next;
+			}
+		}
+	}
+
+	/**
+	 * Cancels everything on the wheel.
+	 */
+	public void cancelAll() {
+		for (int i = 0; i < MAX_GROUPS; i++)
+			cancel(i);
+	}
+
+	/**
+	 * Visits the pending timers of a group in no particular order.
+	 */
+	public void forEach(final int group, final Consumer<Timer> visitor) {
+		if (this.depth[group] == 0)
+			return;
+		for (int i = 0; i < this.slots.length; i++)
+			for (Timer t = this.slots[i]; t != null; t = t.next)
+				if (t.group == group)
+					visitor.accept(t);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int size(final int group) {
+		return this.depth[group];
+	}
+
+	public int getPeak() {
+		return this.peak;
+	}
+
+	public long getExpired() {
+		return this.expired;
+	}
+
+	public long getCancelled() {
+		return this.cancelled;
+	}
+
+	private void unlink(final Timer timer) {
+		if (timer.prev != null)
+			timer.prev.next = timer.next;
+		else
+			this.slots[(int) (timer.deadline & this.mask)] = timer.next;
+		if (timer.next != null)
+			timer.next.prev = timer.prev;
+		timer.prev = timer.next = null;
+		timer.wheel = null;
+		this.depth[timer.group]--;
+		this.size--;
+	}
+}